@@ -2,7 +2,9 @@ package ru.practicum.ewm;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling
 @SpringBootApplication(scanBasePackages = {"ru.practicum.ewm", "ru.practicum.ewm.client"})
 public class EwmServiceApplication {
     public static void main(String[] args) {
@@ -1,5 +1,6 @@
 package ru.practicum.ewm.controller.admin;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -9,7 +10,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.dto.event.EventDto;
 import ru.practicum.ewm.dto.event.AdminUpdateEventRequest;
+import ru.practicum.ewm.dto.event.EventPage;
 import ru.practicum.ewm.model.event.AdminEventSearchCriteria;
+import ru.practicum.ewm.model.event.EventCursor;
 import ru.practicum.ewm.model.event.EventState;
 import ru.practicum.ewm.service.event.EventServiceImpl;
 
@@ -41,7 +44,9 @@ public class AdminEventController {
                                     @RequestParam(required = false) String rangeStart,
                                     @RequestParam(required = false) String rangeEnd,
                                     @RequestParam(defaultValue = "0") int from,
-                                    @RequestParam(defaultValue = "10") int size) {
+                                    @RequestParam(defaultValue = "10") int size,
+                                    @RequestParam(required = false) String cursor,
+                                    HttpServletResponse response) {
         LocalDateTime start = null;
         LocalDateTime end = null;
         if (rangeStart != null) {
@@ -59,9 +64,15 @@ public class AdminEventController {
                 .rangeEnd(end)
                 .from(from)
                 .size(size)
+                .cursor(cursor)
                 .build();
 
         log.info("Параметры запроса - {}", criteria.toString());
-        return eventService.getEventsByCriteria(criteria);
+        EventPage<EventDto> page = eventService.getEventsByCriteria(criteria);
+        if (page.getNextCursor() != null) {
+            response.setHeader(EventCursor.HEADER, page.getNextCursor());
+        }
+
+        return page.getItems();
     }
 }
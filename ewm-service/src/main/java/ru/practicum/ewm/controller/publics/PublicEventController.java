@@ -1,6 +1,7 @@
 package ru.practicum.ewm.controller.publics;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -8,7 +9,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.dto.event.EventDto;
+import ru.practicum.ewm.dto.event.EventPage;
 import ru.practicum.ewm.dto.event.EventShortDto;
+import ru.practicum.ewm.model.event.EventCursor;
 import ru.practicum.ewm.model.event.PublicEventSearchCriteria;
 import ru.practicum.ewm.service.event.EventServiceImpl;
 
@@ -33,10 +36,15 @@ public class PublicEventController {
                                                    @RequestParam(required = false) String rangeStart,
                                                    @RequestParam(required = false) String rangeEnd,
                                                    @RequestParam(defaultValue = "false") Boolean onlyAvailable,
-                                                   @RequestParam(defaultValue = "EVENT_DATE") String sort,
+                                                   @RequestParam(required = false) Double lat,
+                                                   @RequestParam(required = false) Double lon,
+                                                   @RequestParam(required = false) Double radius,
+                                                   @RequestParam(required = false) String sort,
                                                    @RequestParam(defaultValue = "0") int from,
                                                    @RequestParam(defaultValue = "10") int size,
-                                                   HttpServletRequest request) {
+                                                   @RequestParam(required = false) String cursor,
+                                                   HttpServletRequest request,
+                                                   HttpServletResponse response) {
        LocalDateTime start = null;
        LocalDateTime end = null;
         if (rangeStart != null) {
@@ -53,15 +61,24 @@ public class PublicEventController {
                 .rangeStart(start)
                 .rangeEnd(end)
                 .onlyAvailable(onlyAvailable)
+                .lat(lat)
+                .lon(lon)
+                .radius(radius)
                 .sort(sort)
                 .from(from)
                 .size(size)
+                .cursor(cursor)
                 .build();
 
         PublicEventSearchCriteria.validateCriteria(criteria);
 
         log.info("Параметры запроса - {}", criteria.toString());
-        return eventService.getEventsByCriteria(criteria, request);
+        EventPage<EventShortDto> page = eventService.getEventsByCriteria(criteria, request);
+        if (page.getNextCursor() != null) {
+            response.setHeader(EventCursor.HEADER, page.getNextCursor());
+        }
+
+        return page.getItems();
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,37 @@
+package ru.practicum.ewm.controller.publics;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.ewm.dto.event.EventRatingDto;
+import ru.practicum.ewm.dto.user.UserRatingDto;
+import ru.practicum.ewm.service.leaderboard.LeaderboardServiceImpl;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@RequestMapping("/leaderboards")
+public class PublicLeaderboardController {
+    final LeaderboardServiceImpl leaderboardService;
+
+    @GetMapping("/events")
+    @ResponseStatus(HttpStatus.OK)
+    public List<EventRatingDto> getTopEvents(@RequestParam(required = false) Long categoryId,
+                                             @RequestParam(defaultValue = "10") int size) {
+        log.info("Запрос на получение {} самых рейтинговых событий, категория - {}", size, categoryId);
+        return leaderboardService.getTopEvents(categoryId, size);
+    }
+
+    @GetMapping("/users")
+    @ResponseStatus(HttpStatus.OK)
+    public List<UserRatingDto> getTopUsers(@RequestParam(defaultValue = "10") int size) {
+        log.info("Запрос на получение {} самых рейтинговых пользователей", size);
+        return leaderboardService.getTopUsers(size);
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.ewm.dto.event;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Страница выдачи и курсор следующей страницы. Курсора нет, если страница последняя
+ * или сортировка не поддерживает keyset-пагинацию.
+ */
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventPage<T> {
+    List<T> items;
+    String nextCursor;
+}
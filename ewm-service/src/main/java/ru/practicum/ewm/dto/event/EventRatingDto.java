@@ -0,0 +1,17 @@
+package ru.practicum.ewm.dto.event;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventRatingDto {
+    Long id;
+    Long category;
+    String title;
+    Long eventRating;
+}
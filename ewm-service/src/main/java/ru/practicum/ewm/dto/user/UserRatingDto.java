@@ -0,0 +1,16 @@
+package ru.practicum.ewm.dto.user;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserRatingDto {
+    Long id;
+    String name;
+    Long userRating;
+}
@@ -7,11 +7,11 @@ import org.springframework.stereotype.Component;
 import ru.practicum.ewm.dto.compilation.CompilationDto;
 import ru.practicum.ewm.dto.compilation.NewCompilationRequest;
 import ru.practicum.ewm.dto.compilation.UpdateCompilationRequest;
-import ru.practicum.ewm.mapper.event.EventMapper;
 import ru.practicum.ewm.model.Compilation;
 import ru.practicum.ewm.model.event.Event;
 import ru.practicum.ewm.service.event.EventServiceImpl;
 
+import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -20,7 +20,6 @@ import java.util.stream.Collectors;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class CompilationMapper {
     final EventServiceImpl eventService;
-    final EventMapper eventMapper;
 
     public Compilation toCompilation(NewCompilationRequest request) {
         Set<Event> events = request.getEvents().stream()
@@ -37,8 +36,7 @@ public class CompilationMapper {
     public CompilationDto toCompilationDto(Compilation compilation) {
         return CompilationDto.builder()
                 .id(compilation.getId())
-                .events(compilation.getEvents().stream()
-                        .map(eventMapper::toEventShortDto).collect(Collectors.toSet()))
+                .events(new HashSet<>(eventService.toEventShortDtosWithViews(compilation.getEvents())))
                 .pinned(compilation.getPinned())
                 .title(compilation.getTitle())
                 .build();
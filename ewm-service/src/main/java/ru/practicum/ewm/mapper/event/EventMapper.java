@@ -6,8 +6,11 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.stereotype.Component;
 import ru.practicum.ewm.dto.event.*;
 import ru.practicum.ewm.exception.NotValidField;
+import ru.practicum.ewm.dto.user.UserShortDto;
 import ru.practicum.ewm.mapper.user.UserMapper;
+import ru.practicum.ewm.model.Category;
 import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.event.EventShortView;
 import ru.practicum.ewm.model.event.EventState;
 
 import java.time.LocalDateTime;
@@ -175,6 +178,20 @@ public class EventMapper {
                 .build();
     }
 
+    public EventShortDto toEventShortDto(EventShortView event) {
+        return EventShortDto.builder()
+                .id(event.id())
+                .annotation(event.annotation())
+                .category(new Category(event.categoryId(), event.categoryName()))
+                .confirmedRequests(event.confirmedRequests())
+                .eventDate(event.eventDate().format(formatter))
+                .initiator(new UserShortDto(event.initiatorId(), event.initiatorName()))
+                .paid(event.paid())
+                .title(event.title())
+                .views(event.views())
+                .build();
+    }
+
     public EventDtoWithRating toEventDtoWithRating(Event event) {
         return EventDtoWithRating.builder()
                 .id(event.getId())
@@ -21,6 +21,11 @@ public class User {
 
     String email;
 
+    // Меняется только сдвигом счетчиков реакций в базе, поэтому сохранение пользователя его не перезаписывает
     @JoinColumn(name = "user_rating")
+    @Column(updatable = false)
     Long userRating;
+
+    @Version
+    Long version;
 }
@@ -21,4 +21,5 @@ public class AdminEventSearchCriteria {
     LocalDateTime rangeEnd;
     int from;
     int size;
+    String cursor;
 }
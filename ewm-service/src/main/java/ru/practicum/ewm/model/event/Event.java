@@ -57,11 +57,20 @@ public class Event {
     @Enumerated(EnumType.STRING)
     EventState state;
     String title;
+
+    // Переносится из статистики синхронизацией просмотров, сохранение события его не перезаписывает
+    @Column(updatable = false)
     Long views;
 
     @ManyToMany(mappedBy = "events")
     Set<Compilation> collections = new HashSet<>();
 
+    // Меняется только сдвигом счетчиков реакций в базе, поэтому сохранение события его не перезаписывает
     @JoinColumn(name = "event_rating")
+    @Column(updatable = false)
     Long eventRating;
+
+    // Защищает от потери параллельных изменений события, например числа подтвержденных заявок
+    @Version
+    Long version;
 }
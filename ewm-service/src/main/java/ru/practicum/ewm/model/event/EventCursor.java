@@ -0,0 +1,85 @@
+package ru.practicum.ewm.model.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.ewm.exception.NotValidRequestParam;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Позиция в выдаче для keyset-пагинации: сортировка, значение ключа сортировки и id последнего события.
+ * Клиенту отдается непрозрачной строкой в заголовке X-Next-Cursor и возвращается в параметре cursor.
+ */
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EventCursor {
+    public static final String HEADER = "X-Next-Cursor";
+    static final String SEPARATOR = "|";
+
+    EventSort sort;
+    Long id;
+    String value;
+
+    public static EventCursor after(EventSort sort, Event event) {
+        return after(sort, event.getId(), event.getEventDate(), event.getViews(), event.getEventRating());
+    }
+
+    public static EventCursor after(EventSort sort, EventShortView event) {
+        return after(sort, event.id(), event.eventDate(), event.views(), event.eventRating());
+    }
+
+    private static EventCursor after(EventSort sort, Long id, LocalDateTime eventDate, Long views, Long rating) {
+        String value = switch (sort) {
+            case EVENT_DATE -> eventDate.toString();
+            case VIEWS -> String.valueOf(views);
+            case RATINGS -> String.valueOf(rating);
+            case ID -> "";
+            case RELEVANCE, DISTANCE -> throw new IllegalArgumentException(
+                    String.format("Для сортировки %s курсор не поддерживается", sort));
+        };
+
+        return new EventCursor(sort, id, value);
+    }
+
+    public static EventCursor decode(String token, EventSort expectedSort) {
+        EventCursor cursor;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, 3);
+            cursor = new EventCursor(EventSort.valueOf(parts[0]), Long.valueOf(parts[1]), parts[2]);
+            cursor.getKey();
+        } catch (RuntimeException e) {
+            throw new NotValidRequestParam(String.format("Некорректный курсор - %s", token));
+        }
+
+        if (cursor.getSort() != expectedSort) {
+            throw new NotValidRequestParam(String.format("Курсор получен для сортировки %s, а запрошена %s",
+                    cursor.getSort(), expectedSort));
+        }
+
+        return cursor;
+    }
+
+    public String encode() {
+        String raw = sort + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Значение ключа сортировки в типе соответствующего поля события.
+     */
+    public Comparable<?> getKey() {
+        return switch (sort) {
+            case EVENT_DATE -> LocalDateTime.parse(value);
+            case VIEWS, RATINGS -> Long.valueOf(value);
+            case ID -> id;
+            case RELEVANCE, DISTANCE -> throw new IllegalStateException(
+                    String.format("Для сортировки %s курсор не поддерживается", sort));
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.ewm.model.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция события для коротких списков: только колонки EventShortDto и ключей сортировки,
+ * без описания и без сущностей в контексте персистентности.
+ */
+public record EventShortView(Long id,
+                             String annotation,
+                             Long categoryId,
+                             String categoryName,
+                             Long confirmedRequests,
+                             LocalDateTime eventDate,
+                             Long initiatorId,
+                             String initiatorName,
+                             Boolean paid,
+                             String title,
+                             Long views,
+                             Long eventRating) {
+}
@@ -0,0 +1,27 @@
+package ru.practicum.ewm.model.event;
+
+import ru.practicum.ewm.exception.NotValidRequestParam;
+
+public enum EventSort {
+    EVENT_DATE,
+    VIEWS,
+    RATINGS,
+    RELEVANCE,
+    DISTANCE,
+    ID;
+
+    /**
+     * Сортировки по вычисляемому значению (релевантность, расстояние) не поддерживают курсор.
+     */
+    public boolean supportsCursor() {
+        return this != RELEVANCE && this != DISTANCE;
+    }
+
+    public static EventSort from(String value) {
+        try {
+            return valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new NotValidRequestParam(String.format("Неизвестный вариант сортировки - %s", value));
+        }
+    }
+}
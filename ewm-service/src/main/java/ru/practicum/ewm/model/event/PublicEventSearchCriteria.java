@@ -21,13 +21,33 @@ public class PublicEventSearchCriteria {
     LocalDateTime rangeStart;
     LocalDateTime rangeEnd;
     Boolean onlyAvailable;
+    Double lat;
+    Double lon;
+    Double radius;
     String sort;
     int from;
     int size;
+    String cursor;
+
+    public boolean hasLocation() {
+        return lat != null && lon != null && radius != null;
+    }
 
     public static void validateCriteria(PublicEventSearchCriteria criteria) {
         if ("0".equals(criteria.getText())) {
             throw new NotValidRequestParam("Параметр text не может быть равен '0'");
         }
+
+        if (criteria.getLat() != null || criteria.getLon() != null || criteria.getRadius() != null) {
+            if (criteria.getLat() == null || criteria.getLon() == null || criteria.getRadius() == null) {
+                throw new NotValidRequestParam("Параметры lat, lon и radius задаются вместе");
+            }
+            if (criteria.getLat() < -90 || criteria.getLat() > 90 || criteria.getLon() < -180 || criteria.getLon() > 180) {
+                throw new NotValidRequestParam("Координаты должны быть в пределах lat [-90, 90] и lon [-180, 180]");
+            }
+            if (criteria.getRadius() <= 0) {
+                throw new NotValidRequestParam("Параметр radius должен быть положительным");
+            }
+        }
     }
 }
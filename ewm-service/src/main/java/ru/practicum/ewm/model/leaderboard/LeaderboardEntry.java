@@ -0,0 +1,15 @@
+package ru.practicum.ewm.model.leaderboard;
+
+import java.util.Comparator;
+
+/**
+ * Позиция в рейтинге: событие (с категорией и названием) или пользователь (с именем, без категории).
+ */
+public record LeaderboardEntry(Long id, Long categoryId, String name, long rating) {
+    /**
+     * Порядок рейтинга: больший рейтинг выше, при равенстве выше меньший id.
+     */
+    public static final Comparator<LeaderboardEntry> ORDER = Comparator
+            .comparingLong(LeaderboardEntry::rating).reversed()
+            .thenComparing(LeaderboardEntry::id);
+}
@@ -0,0 +1,14 @@
+package ru.practicum.ewm.model.reaction;
+
+/**
+ * Изменение счетчиков реакций события и его инициатора из очереди reaction_outbox.
+ */
+public record ReactionDelta(Long eventId, Long categoryId, Long userId, long likes, long dislikes) {
+    public ReactionDelta plus(ReactionDelta other) {
+        return new ReactionDelta(eventId, categoryId, userId, likes + other.likes, dislikes + other.dislikes);
+    }
+
+    public boolean isEmpty() {
+        return likes == 0 && dislikes == 0;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.ewm.model.reaction;
+
+/**
+ * Суммарное изменение счетчиков реакций на события пользователя.
+ */
+public record UserReactionDelta(Long userId, long likes, long dislikes) {
+    public static UserReactionDelta of(ReactionDelta delta) {
+        return new UserReactionDelta(delta.userId(), delta.likes(), delta.dislikes());
+    }
+
+    public UserReactionDelta plus(UserReactionDelta other) {
+        return new UserReactionDelta(userId, likes + other.likes, dislikes + other.dislikes);
+    }
+
+    public boolean isEmpty() {
+        return likes == 0 && dislikes == 0;
+    }
+}
@@ -1,11 +1,28 @@
 package ru.practicum.ewm.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.ewm.model.Compilation;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
-    List<Compilation> findByPinned(Boolean pinned, Pageable pageable);
+    @Override
+    @EntityGraph(attributePaths = {"events", "events.category", "events.initiator"})
+    Optional<Compilation> findById(Long id);
+
+    /**
+     * Страница id подборок. Подборки с событиями загружаются отдельно через {@link #findByIdIn(Collection)}:
+     * limit/offset вместе с fetch коллекции Hibernate применил бы уже в памяти.
+     */
+    @Query("SELECT c.id FROM Compilation c WHERE (:pinned IS NULL OR c.pinned = :pinned) ORDER BY c.id")
+    List<Long> findIds(@Param("pinned") Boolean pinned, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"events", "events.category", "events.initiator"})
+    List<Compilation> findByIdIn(Collection<Long> ids);
 }
@@ -2,49 +2,45 @@ package ru.practicum.ewm.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.model.event.Event;
-import ru.practicum.ewm.model.event.EventState;
+import ru.practicum.ewm.model.event.EventShortView;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventRepositoryCustom {
     Optional<Event> findById(Long id);
 
-    List<Event> findByInitiatorId(Long initiatorId, Pageable pageable);
+    @Query("SELECT new ru.practicum.ewm.model.event.EventShortView(e.id, e.annotation, c.id, c.name, " +
+            "e.confirmedRequests, e.eventDate, u.id, u.name, e.paid, e.title, e.views, e.eventRating) " +
+            "FROM Event e JOIN e.category c JOIN e.initiator u " +
+            "WHERE u.id = :initiatorId " +
+            "ORDER BY e.id")
+    List<EventShortView> findShortViewsByInitiatorId(@Param("initiatorId") Long initiatorId, Pageable pageable);
 
     Optional<Event> findByInitiatorIdAndId(Long initiatorId, Long id);
 
     boolean existsByCategoryId(Long categoryId);
 
-    @Query("SELECT e FROM Event e WHERE (:users IS NULL OR e.initiator.id IN :users) " +
-            "AND (:states IS NULL OR e.state IN :states) " +
-            "AND (:categories IS NULL OR e.category.id IN :categories) " +
-            "AND e.eventDate BETWEEN :rangeStart AND :rangeEnd")
-    List<Event> findEventsByCriteria(@Param("users") List<Long> users,
-                                     @Param("states") List<EventState> states,
-                                     @Param("categories") List<Long> categories,
-                                     @Param("rangeStart") LocalDateTime rangeStart,
-                                     @Param("rangeEnd") LocalDateTime rangeEnd,
-                                     Pageable pageable);
-
-    @Query("SELECT e FROM Event e WHERE (:text IS NULL OR (:text <> '' AND (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text, '%')) " +
-            "OR LOWER(e.description) LIKE LOWER(CONCAT('%', :text, '%')))) ) " +
-            "AND (:categories IS NULL OR e.category.id IN :categories) " +
-            "AND (:paid IS NULL OR e.paid = :paid) " +
-            "AND e.eventDate BETWEEN :rangeStart AND :rangeEnd " +
-            "AND e.state = 'PUBLISHED' " +
-            "ORDER BY CASE WHEN :sort = 'EVENT_DATE' THEN e.eventDate END ASC, " +
-            "CASE WHEN :sort = 'VIEWS' THEN e.views END DESC, " +
-            "CASE WHEN :sort = 'RATINGS' THEN e.eventRating END DESC")
-    List<Event> findEventsByCriteria(@Param("text") String text,
-                                     @Param("categories") List<Long> categories,
-                                     @Param("paid") Boolean paid,
-                                     @Param("rangeStart") LocalDateTime rangeStart,
-                                     @Param("rangeEnd") LocalDateTime rangeEnd,
-                                     @Param("sort") String sort,
-                                     Pageable pageable);
+    /**
+     * Пересчитывает счетчики реакций и рейтинги всех событий по таблице reactions за вычетом изменений,
+     * еще ждущих в reaction_outbox. Возвращает число исправленных событий.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE events e SET likes = c.likes, dislikes = c.dislikes, event_rating = c.likes - c.dislikes " +
+            "FROM (SELECT ev.id, " +
+            "COUNT(r.id) FILTER (WHERE r.reaction = 'LIKE') - " +
+            "COALESCE((SELECT SUM(o.likes) FROM reaction_outbox o WHERE o.event_id = ev.id), 0) AS likes, " +
+            "COUNT(r.id) FILTER (WHERE r.reaction = 'DISLIKE') - " +
+            "COALESCE((SELECT SUM(o.dislikes) FROM reaction_outbox o WHERE o.event_id = ev.id), 0) AS dislikes " +
+            "FROM events ev LEFT JOIN reactions r ON r.event_id = ev.id GROUP BY ev.id) c " +
+            "WHERE e.id = c.id AND (e.likes, e.dislikes, e.event_rating) " +
+            "IS DISTINCT FROM (c.likes, c.dislikes, c.likes - c.dislikes)",
+            nativeQuery = true)
+    int reconcileReactions();
 }
@@ -0,0 +1,25 @@
+package ru.practicum.ewm.repository;
+
+import ru.practicum.ewm.model.event.AdminEventSearchCriteria;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.event.EventCursor;
+import ru.practicum.ewm.model.event.EventShortView;
+import ru.practicum.ewm.model.event.EventSort;
+import ru.practicum.ewm.model.event.PublicEventSearchCriteria;
+
+import java.util.List;
+
+public interface EventRepositoryCustom {
+    /**
+     * Опубликованные события по фильтрам публичного поиска, включая onlyAvailable. Если передан курсор, выдача начинается
+     * сразу после него и параметр from игнорируется, иначе пропускается from страниц по size событий.
+     * Читаются только колонки короткой карточки.
+     */
+    List<EventShortView> findPublishedEvents(PublicEventSearchCriteria criteria, EventSort sort, EventCursor after);
+
+    /**
+     * События по фильтрам админского поиска в порядке id. В запрос попадают только заданные фильтры.
+     * Курсор сортировки ID заменяет смещение from.
+     */
+    List<Event> findEvents(AdminEventSearchCriteria criteria, EventCursor after);
+}
@@ -0,0 +1,181 @@
+package ru.practicum.ewm.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.ewm.model.Category;
+import ru.practicum.ewm.model.User;
+import ru.practicum.ewm.model.event.AdminEventSearchCriteria;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.event.EventCursor;
+import ru.practicum.ewm.model.event.EventShortView;
+import ru.practicum.ewm.model.event.EventSort;
+import ru.practicum.ewm.model.event.EventState;
+import ru.practicum.ewm.model.event.PublicEventSearchCriteria;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventRepositoryCustomImpl implements EventRepositoryCustom {
+    static final String QUERY_PARAM = "query";
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Override
+    public List<EventShortView> findPublishedEvents(PublicEventSearchCriteria criteria, EventSort sort, EventCursor after) {
+        String textQuery = null;
+        if (criteria.getText() != null) {
+            textQuery = FullTextSearchFunctions.toPrefixQuery(criteria.getText());
+            if (textQuery.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EventShortView> cq = cb.createQuery(EventShortView.class);
+        Root<Event> event = cq.from(Event.class);
+        Join<Event, Category> category = event.join("category");
+        Join<Event, User> initiator = event.join("initiator");
+        Path<Long> id = event.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        // Литералы, а не параметры: иначе общий план запроса не сможет использовать частичный индекс
+        predicates.add(cb.equal(event.get("state"), cb.literal(EventState.PUBLISHED)));
+        predicates.add(cb.between(event.get("eventDate"), criteria.getRangeStart(), criteria.getRangeEnd()));
+        if (criteria.getCategories() != null) {
+            predicates.add(event.get("category").get("id").in(criteria.getCategories()));
+        }
+        if (criteria.getPaid() != null) {
+            predicates.add(cb.equal(event.get("paid"), criteria.getPaid()));
+        }
+        if (Boolean.TRUE.equals(criteria.getOnlyAvailable())) {
+            // Без приведения типов, чтобы условие совпало с условием частичного индекса idx_events_available_date
+            Path<Long> participantLimit = event.get("participantLimit");
+            Path<Long> confirmedRequests = event.get("confirmedRequests");
+            predicates.add(cb.or(cb.equal(participantLimit, cb.literal(0)),
+                    cb.lessThan(confirmedRequests, participantLimit)));
+        }
+
+        Expression<Double> rank = null;
+        if (textQuery != null) {
+            Expression<String> vector = cb.function(FullTextSearchFunctions.SEARCH_VECTOR, String.class, id);
+            ParameterExpression<String> query = cb.parameter(String.class, QUERY_PARAM);
+            predicates.add(cb.isTrue(cb.function("fts_match", Boolean.class, vector, query)));
+            rank = cb.function("fts_rank", Double.class, vector, query);
+        }
+
+        Expression<Double> distance = null;
+        if (criteria.hasLocation()) {
+            Path<Float> lat = event.get("location").get("lat");
+            Path<Float> lon = event.get("location").get("lon");
+            GeoFunctions.Box box = GeoFunctions.boundingBox(criteria.getLat(), criteria.getLon(), criteria.getRadius());
+
+            // Прямоугольник отбирает кандидатов по GiST-индексу, точное расстояние отсекает углы
+            predicates.add(cb.isTrue(cb.function("geo_in_box", Boolean.class, lon, lat,
+                    cb.literal(box.minLon()), cb.literal(box.minLat()), cb.literal(box.maxLon()), cb.literal(box.maxLat()))));
+            distance = cb.function("geo_distance", Double.class, lat, lon,
+                    cb.literal(criteria.getLat()), cb.literal(criteria.getLon()));
+            predicates.add(cb.lessThanOrEqualTo(distance, cb.literal(criteria.getRadius())));
+        }
+
+        if (after != null) {
+            predicates.add(seek(cb, event, after));
+        }
+
+        cq.select(cb.construct(EventShortView.class,
+                        id, event.get("annotation"), category.get("id"), category.get("name"),
+                        event.get("confirmedRequests"), event.get("eventDate"), initiator.get("id"),
+                        initiator.get("name"), event.get("paid"), event.get("title"), event.get("views"),
+                        event.get("eventRating")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(order(cb, event, sort, rank, distance));
+
+        TypedQuery<EventShortView> query = entityManager.createQuery(cq)
+                .setFirstResult(after == null ? criteria.getFrom() * criteria.getSize() : 0)
+                .setMaxResults(criteria.getSize());
+        if (textQuery != null) {
+            query.setParameter(QUERY_PARAM, textQuery);
+        }
+
+        return query.getResultList();
+    }
+
+    @Override
+    public List<Event> findEvents(AdminEventSearchCriteria criteria, EventCursor after) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> cq = cb.createQuery(Event.class);
+        Root<Event> event = cq.from(Event.class);
+        event.fetch("category");
+        event.fetch("initiator");
+
+        // Только заданные фильтры: у каждой комбинации свой текст запроса и свой план с подходящим индексом
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getUsers() != null && !criteria.getUsers().isEmpty()) {
+            predicates.add(event.get("initiator").get("id").in(criteria.getUsers()));
+        }
+        if (criteria.getStates() != null && !criteria.getStates().isEmpty()) {
+            predicates.add(event.get("state").in(criteria.getStates()));
+        }
+        if (criteria.getCategories() != null && !criteria.getCategories().isEmpty()) {
+            predicates.add(event.get("category").get("id").in(criteria.getCategories()));
+        }
+        predicates.add(cb.between(event.get("eventDate"), criteria.getRangeStart(), criteria.getRangeEnd()));
+        if (after != null) {
+            predicates.add(seek(cb, event, after));
+        }
+
+        cq.select(event)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(event.get("id")));
+
+        return entityManager.createQuery(cq)
+                .setFirstResult(after == null ? criteria.getFrom() * criteria.getSize() : 0)
+                .setMaxResults(criteria.getSize())
+                .getResultList();
+    }
+
+    private List<Order> order(CriteriaBuilder cb, Root<Event> event, EventSort sort, Expression<Double> rank,
+                              Expression<Double> distance) {
+        Order byId = cb.asc(event.get("id"));
+
+        return switch (sort) {
+            case EVENT_DATE -> List.of(cb.asc(event.get("eventDate")), byId);
+            case VIEWS -> List.of(cb.desc(event.get("views")), byId);
+            case RATINGS -> List.of(cb.desc(event.get("eventRating")), byId);
+            case RELEVANCE -> rank != null ? List.of(cb.desc(rank), byId) : List.of(byId);
+            case DISTANCE -> distance != null ? List.of(cb.asc(distance), byId) : List.of(byId);
+            case ID -> List.of(byId);
+        };
+    }
+
+    /**
+     * Условие "после курсора" для порядка (key, id). Нестрогое сравнение по key дублирует дизъюнкцию,
+     * но дает базе границу для поиска по индексу вместо фильтрации всех предыдущих строк.
+     */
+    private Predicate seek(CriteriaBuilder cb, Root<Event> event, EventCursor after) {
+        Path<Long> id = event.get("id");
+
+        return switch (after.getSort()) {
+            case EVENT_DATE -> seek(cb, event.get("eventDate"), (LocalDateTime) after.getKey(), id, after.getId(), true);
+            case VIEWS -> seek(cb, event.get("views"), (Long) after.getKey(), id, after.getId(), false);
+            case RATINGS -> seek(cb, event.get("eventRating"), (Long) after.getKey(), id, after.getId(), false);
+            case ID -> cb.greaterThan(id, after.getId());
+            case RELEVANCE, DISTANCE -> throw new IllegalArgumentException(
+                    String.format("Для сортировки %s курсор не поддерживается", after.getSort()));
+        };
+    }
+
+    private <T extends Comparable<? super T>> Predicate seek(CriteriaBuilder cb, Path<T> key, T value,
+                                                             Path<Long> id, Long lastId, boolean ascending) {
+        Predicate bound = ascending ? cb.greaterThanOrEqualTo(key, value) : cb.lessThanOrEqualTo(key, value);
+        Predicate beyond = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+
+        return cb.and(bound, cb.or(beyond, cb.greaterThan(id, lastId)));
+    }
+}
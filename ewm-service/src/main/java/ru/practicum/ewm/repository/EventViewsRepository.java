@@ -0,0 +1,59 @@
+package ru.practicum.ewm.repository;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Сохраненные просмотры опубликованных событий (events.views) для синхронизации со статистикой.
+ */
+@Repository
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@AllArgsConstructor
+public class EventViewsRepository {
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Следующие limit опубликованных событий после afterId в порядке id: id -> views.
+     */
+    public Map<Long, Long> findPublishedViews(long afterId, int limit) {
+        Map<Long, Long> views = new LinkedHashMap<>();
+
+        jdbcTemplate.query("SELECT id, views FROM events WHERE state = 'PUBLISHED' AND id > :afterId " +
+                        "ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource()
+                        .addValue("afterId", afterId)
+                        .addValue("limit", limit),
+                rs -> {
+                    views.put(rs.getLong("id"), rs.getLong("views"));
+                });
+
+        return views;
+    }
+
+    /**
+     * Записывает просмотры одной пачкой UPDATE в одной транзакции.
+     */
+    @Transactional
+    public void updateViews(Map<Long, Long> views) {
+        if (views.isEmpty()) {
+            return;
+        }
+
+        SqlParameterSource[] batch = views.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("id", entry.getKey())
+                        .addValue("views", entry.getValue()))
+                .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate("UPDATE events SET views = :views WHERE id = :id", batch);
+    }
+}
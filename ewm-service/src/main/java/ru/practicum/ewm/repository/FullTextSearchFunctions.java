@@ -0,0 +1,51 @@
+package ru.practicum.ewm.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.function.SqlColumn;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Функции полнотекстового поиска Postgres для запросов Hibernate: fts_match(vector, query) и fts_rank(vector, query).
+ * Запрос передается в синтаксисе to_tsquery, его строит {@link #toPrefixQuery(String)}.
+ * Колонка search_vector в сущности не отображается, search_vector(e.id) ссылается на нее в таблице события.
+ */
+public class FullTextSearchFunctions implements FunctionContributor {
+    public static final String SEARCH_VECTOR = "search_vector";
+    static final String CONFIG = "'simple'";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionContributions.getFunctionRegistry()
+                .register(SEARCH_VECTOR, new SqlColumn(SEARCH_VECTOR, types.resolve(StandardBasicTypes.STRING)));
+        functionContributions.getFunctionRegistry()
+                .patternDescriptorBuilder("fts_match", "(?1 @@ to_tsquery(" + CONFIG + ", ?2))")
+                .setExactArgumentCount(2)
+                .setInvariantType(types.resolve(StandardBasicTypes.BOOLEAN))
+                .register();
+        functionContributions.getFunctionRegistry()
+                .patternDescriptorBuilder("fts_rank", "ts_rank(?1, to_tsquery(" + CONFIG + ", ?2))")
+                .setExactArgumentCount(2)
+                .setInvariantType(types.resolve(StandardBasicTypes.DOUBLE))
+                .register();
+    }
+
+    /**
+     * Превращает пользовательский текст в запрос, где каждое слово ищется по префиксу:
+     * "Джаз конц" -> "джаз:* & конц:*". Для текста без букв и цифр возвращает пустую строку.
+     */
+    public static String toPrefixQuery(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
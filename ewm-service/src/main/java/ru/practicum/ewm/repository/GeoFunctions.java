@@ -0,0 +1,58 @@
+package ru.practicum.ewm.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Гео-функции для запросов Hibernate без PostGIS, на встроенных типах point и box.
+ * geo_in_box(lon, lat, minLon, minLat, maxLon, maxLat) проверяет попадание в прямоугольник и использует
+ * GiST-индекс по point(lon, lat); geo_distance(lat, lon, lat0, lon0) - расстояние по гаверсинусу в километрах.
+ */
+public class GeoFunctions implements FunctionContributor {
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180;
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionContributions.getFunctionRegistry()
+                .patternDescriptorBuilder("geo_in_box", "(point(?1, ?2) <@ box(point(?3, ?4), point(?5, ?6)))")
+                .setExactArgumentCount(6)
+                .setInvariantType(types.resolve(StandardBasicTypes.BOOLEAN))
+                .register();
+        functionContributions.getFunctionRegistry()
+                .patternDescriptorBuilder("geo_distance", "(" + EARTH_RADIUS_KM + " * 2 * asin(sqrt("
+                        + "power(sin(radians(?1 - ?3) / 2), 2) + "
+                        + "cos(radians(?3)) * cos(radians(?1)) * power(sin(radians(?2 - ?4) / 2), 2))))")
+                .setExactArgumentCount(4)
+                .setInvariantType(types.resolve(StandardBasicTypes.DOUBLE))
+                .register();
+    }
+
+    /**
+     * Прямоугольник, гарантированно содержащий круг заданного радиуса. Если круг задевает полюс
+     * или линию перемены дат, прямоугольник расширяется до всех долгот: выборка грубее, но не теряет событий.
+     */
+    public static Box boundingBox(double lat, double lon, double radiusKm) {
+        double deltaLat = radiusKm / KM_PER_DEGREE;
+        double minLat = lat - deltaLat;
+        double maxLat = lat + deltaLat;
+
+        if (minLat <= -90 || maxLat >= 90) {
+            return new Box(Math.max(minLat, -90), -180, Math.min(maxLat, 90), 180);
+        }
+
+        double deltaLon = deltaLat / Math.cos(Math.toRadians(lat));
+        if (lon - deltaLon < -180 || lon + deltaLon > 180) {
+            return new Box(minLat, -180, maxLat, 180);
+        }
+
+        return new Box(minLat, lon - deltaLon, maxLat, lon + deltaLon);
+    }
+
+    public record Box(double minLat, double minLon, double maxLat, double maxLon) {
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.ewm.repository;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewm.model.leaderboard.LeaderboardEntry;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Рейтинги опубликованных событий и пользователей для построения рейтинговых таблиц в памяти.
+ */
+@Repository
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@AllArgsConstructor
+public class LeaderboardRepository {
+    static final String EVENTS = "SELECT id, category_id, title, event_rating FROM events WHERE state = 'PUBLISHED'";
+    static final String USERS = "SELECT id, name, user_rating FROM users";
+
+    static final RowMapper<LeaderboardEntry> EVENT_MAPPER = (rs, rowNum) -> new LeaderboardEntry(
+            rs.getLong("id"), rs.getLong("category_id"), rs.getString("title"), rs.getLong("event_rating"));
+    static final RowMapper<LeaderboardEntry> USER_MAPPER = (rs, rowNum) -> new LeaderboardEntry(
+            rs.getLong("id"), null, rs.getString("name"), rs.getLong("user_rating"));
+
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<LeaderboardEntry> findEvents() {
+        return jdbcTemplate.query(EVENTS, EVENT_MAPPER);
+    }
+
+    /**
+     * Только опубликованные события из указанных: отсутствующие в ответе в рейтинг не входят.
+     */
+    public List<LeaderboardEntry> findEvents(Collection<Long> ids) {
+        return jdbcTemplate.query(EVENTS + " AND id IN (:ids)", new MapSqlParameterSource("ids", ids), EVENT_MAPPER);
+    }
+
+    public List<LeaderboardEntry> findUsers() {
+        return jdbcTemplate.query(USERS, USER_MAPPER);
+    }
+
+    public List<LeaderboardEntry> findUsers(Collection<Long> ids) {
+        return jdbcTemplate.query(USERS + " WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids), USER_MAPPER);
+    }
+}
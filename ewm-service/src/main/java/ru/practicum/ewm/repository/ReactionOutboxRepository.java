@@ -0,0 +1,82 @@
+package ru.practicum.ewm.repository;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewm.model.reaction.ReactionDelta;
+import ru.practicum.ewm.model.reaction.UserReactionDelta;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Очередь изменений счетчиков реакций (reaction_outbox). Строка пишется в транзакции реакции,
+ * а счетчики events и users сдвигаются позже пачками.
+ */
+@Repository
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@AllArgsConstructor
+public class ReactionOutboxRepository {
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void add(Long eventId, Long userId, long likes, long dislikes) {
+        jdbcTemplate.update("INSERT INTO reaction_outbox (event_id, user_id, likes, dislikes) " +
+                        "VALUES (:eventId, :userId, :likes, :dislikes)",
+                new MapSqlParameterSource()
+                        .addValue("eventId", eventId)
+                        .addValue("userId", userId)
+                        .addValue("likes", likes)
+                        .addValue("dislikes", dislikes));
+    }
+
+    /**
+     * Забирает из очереди до limit самых старых строк. Строки, захваченные другим обработчиком, пропускаются,
+     * поэтому обработчики не ждут друг друга. Удаление фиксируется вместе с транзакцией вызывающего.
+     */
+    public List<ReactionDelta> poll(int limit) {
+        return jdbcTemplate.query("DELETE FROM reaction_outbox o USING events e " +
+                        "WHERE o.id IN (SELECT id FROM reaction_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+                        "AND e.id = o.event_id " +
+                        "RETURNING o.event_id, e.category_id, o.user_id, o.likes, o.dislikes",
+                new MapSqlParameterSource("limit", limit),
+                (rs, rowNum) -> new ReactionDelta(
+                        rs.getLong("event_id"),
+                        rs.getLong("category_id"),
+                        rs.getLong("user_id"),
+                        rs.getLong("likes"),
+                        rs.getLong("dislikes")));
+    }
+
+    public void applyToEvents(Collection<ReactionDelta> deltas) {
+        apply("UPDATE events SET likes = likes + :likes, dislikes = dislikes + :dislikes, " +
+                "event_rating = event_rating + :likes - :dislikes WHERE id = :id",
+                deltas.stream()
+                        .map(delta -> counters(delta.eventId(), delta.likes(), delta.dislikes()))
+                        .toArray(SqlParameterSource[]::new));
+    }
+
+    public void applyToUsers(Collection<UserReactionDelta> deltas) {
+        apply("UPDATE users SET likes = likes + :likes, dislikes = dislikes + :dislikes, " +
+                "user_rating = user_rating + :likes - :dislikes WHERE id = :id",
+                deltas.stream()
+                        .map(delta -> counters(delta.userId(), delta.likes(), delta.dislikes()))
+                        .toArray(SqlParameterSource[]::new));
+    }
+
+    private void apply(String sql, SqlParameterSource[] batch) {
+        if (batch.length > 0) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    private static SqlParameterSource counters(Long id, long likes, long dislikes) {
+        return new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("likes", likes)
+                .addValue("dislikes", dislikes);
+    }
+}
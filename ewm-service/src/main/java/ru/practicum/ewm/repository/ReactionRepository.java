@@ -1,20 +1,35 @@
 package ru.practicum.ewm.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.model.reaction.Reaction;
 import ru.practicum.ewm.model.reaction.ReactionType;
 
 public interface ReactionRepository extends JpaRepository<Reaction, Long> {
-    @Query("SELECT COUNT(r) FROM Reaction r WHERE r.reaction = :reaction AND r.eventId = :eventId")
-    Long countReactionsByEvent(@Param("eventId") Long eventId, @Param("reaction") ReactionType reactionType);
+    /**
+     * Ставит реакцию одним запросом: вставляет новую или меняет противоположную по ключу (event_id, liked_user_id).
+     * Возвращает true, если реакции не было, false, если противоположная реакция заменена,
+     * и null, если такая же реакция уже стоит и строка не изменилась.
+     */
+    @Transactional
+    @Query(value = "INSERT INTO reactions (event_id, event_user_id, liked_user_id, reaction) " +
+            "VALUES (:eventId, :eventUserId, :likedUserId, :#{#reaction.name()}) " +
+            "ON CONFLICT (event_id, liked_user_id) DO UPDATE SET reaction = EXCLUDED.reaction " +
+            "WHERE reactions.reaction <> EXCLUDED.reaction " +
+            "RETURNING (xmax = 0)",
+            nativeQuery = true)
+    Boolean upsertReaction(@Param("eventId") Long eventId, @Param("eventUserId") Long eventUserId,
+                           @Param("likedUserId") Long likedUserId, @Param("reaction") ReactionType reactionType);
 
-    @Query("SELECT COUNT(r) FROM Reaction r WHERE r.reaction = :reaction AND r.eventUserId = :eventUserId")
-    Long countReactionsByInitiator(@Param("eventUserId") Long eventUserId, @Param("reaction") ReactionType reactionType);
-
-    @Query("SELECT COUNT(r) > 0 FROM Reaction r WHERE r.eventId = :eventId AND r.likedUserId = :likedUserId AND r.reaction = :reaction")
-    Boolean existsReaction(@Param("eventId") Long eventId, @Param("likedUserId") Long likedUserId, @Param("reaction") ReactionType reactionType);
-
-    void deleteByEventIdAndLikedUserId(Long eventId, Long likedUserId);
+    /**
+     * Удаляет реакцию пользователя заданного типа и возвращает число удаленных строк, по которому сдвигаются счетчики.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Reaction r WHERE r.eventId = :eventId AND r.likedUserId = :likedUserId AND r.reaction = :reaction")
+    int deleteReaction(@Param("eventId") Long eventId, @Param("likedUserId") Long likedUserId,
+                       @Param("reaction") ReactionType reactionType);
 }
@@ -2,6 +2,9 @@ package ru.practicum.ewm.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.model.User;
 
 import java.util.List;
@@ -11,4 +14,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByIdIn(List<Long> ids, Pageable pageable);
 
     Optional<User> findById(Long id);
+
+    /**
+     * Пересчитывает счетчики реакций и рейтинги всех пользователей по таблице reactions за вычетом
+     * изменений, еще ждущих в reaction_outbox.
+     * Возвращает число исправленных пользователей.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users u SET likes = c.likes, dislikes = c.dislikes, user_rating = c.likes - c.dislikes " +
+            "FROM (SELECT us.id, " +
+            "COUNT(r.id) FILTER (WHERE r.reaction = 'LIKE') - " +
+            "COALESCE((SELECT SUM(o.likes) FROM reaction_outbox o WHERE o.user_id = us.id), 0) AS likes, " +
+            "COUNT(r.id) FILTER (WHERE r.reaction = 'DISLIKE') - " +
+            "COALESCE((SELECT SUM(o.dislikes) FROM reaction_outbox o WHERE o.user_id = us.id), 0) AS dislikes " +
+            "FROM users us LEFT JOIN reactions r ON r.event_user_id = us.id GROUP BY us.id) c " +
+            "WHERE u.id = c.id AND (u.likes, u.dislikes, u.user_rating) " +
+            "IS DISTINCT FROM (c.likes, c.dislikes, c.likes - c.dislikes)",
+            nativeQuery = true)
+    int reconcileReactions();
 }
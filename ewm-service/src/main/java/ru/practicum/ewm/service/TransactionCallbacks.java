@@ -0,0 +1,42 @@
+package ru.practicum.ewm.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Действия, отложенные до завершения текущей транзакции. Вне транзакции откладывать нечего.
+ */
+public final class TransactionCallbacks {
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Выполняет действие после коммита, а вне транзакции - сразу. При откате действие не выполняется.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Выполняет действие после коммита или отката. Вне транзакции ничего не делает.
+     */
+    public static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+}
@@ -14,6 +14,8 @@ import ru.practicum.ewm.mapper.category.CategoryMapper;
 import ru.practicum.ewm.model.Category;
 import ru.practicum.ewm.repository.CategoryRepository;
 import ru.practicum.ewm.repository.EventRepository;
+import ru.practicum.ewm.service.event.EventDtoCache;
+import ru.practicum.ewm.service.event.EventSearchCache;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -25,6 +27,8 @@ public class CategoryServiceImpl implements CategoryService {
     final CategoryRepository categoryRepository;
     final CategoryMapper categoryMapper;
     final EventRepository eventRepository;
+    final EventDtoCache eventDtoCache;
+    final EventSearchCache eventSearchCache;
 
     @Override
     public CategoryDto saveCategory(NewCategoryRequest request) {
@@ -46,6 +50,9 @@ public class CategoryServiceImpl implements CategoryService {
         existingCategory = categoryMapper.updateCategoryFields(existingCategory, request);
 
         existingCategory = categoryRepository.save(existingCategory);
+        // Категория входит в карточку события целиком, поэтому переименование сбрасывает кэши целиком
+        eventDtoCache.evictAll();
+        eventSearchCache.evictAll();
 
         return categoryMapper.toCategoryDto(existingCategory);
     }
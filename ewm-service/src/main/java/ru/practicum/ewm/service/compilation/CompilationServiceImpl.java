@@ -15,6 +15,7 @@ import ru.practicum.ewm.mapper.compilation.CompilationMapper;
 import ru.practicum.ewm.model.Compilation;
 import ru.practicum.ewm.repository.CompilationRepository;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -64,16 +65,13 @@ public class CompilationServiceImpl implements CompilationService {
     @Override
     public List<CompilationDto> getCompilations(Boolean pinned, int from, int size) {
         Pageable pageable = PageRequest.of(from, size);
-
-        if (pinned == null) {
-            return compilationRepository.findAll(pageable).stream()
-                    .map(compilationMapper::toCompilationDto)
-                    .collect(Collectors.toList());
+        List<Long> ids = compilationRepository.findIds(pinned, pageable);
+        if (ids.isEmpty()) {
+            return List.of();
         }
 
-        List<Compilation> compilations = compilationRepository.findByPinned(pinned, pageable);
-
-        return compilations.stream()
+        return compilationRepository.findByIdIn(ids).stream()
+                .sorted(Comparator.comparing(Compilation::getId))
                 .map(compilationMapper::toCompilationDto)
                 .collect(Collectors.toList());
     }
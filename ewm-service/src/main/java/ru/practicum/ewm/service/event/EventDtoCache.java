@@ -0,0 +1,60 @@
+package ru.practicum.ewm.service.event;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.dto.event.EventDto;
+import ru.practicum.ewm.service.TransactionCallbacks;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Кэш карточек опубликованных событий для публичного GET /events/{id}, ограниченный по размеру и времени жизни.
+ * Хранит DTO без просмотров: они берутся из сервиса статистики при каждом запросе.
+ * Статистика попаданий публикуется в метриках cache.* с тегом cache=eventDetails.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EventDtoCache {
+    static final String NAME = "eventDetails";
+
+    Cache<Long, EventDto> cache;
+
+    public EventDtoCache(@Value("${ewm.events.cache.max-size:10000}") long maxSize,
+                         @Value("${ewm.events.cache.ttl-seconds:60}") long ttlSeconds,
+                         MeterRegistry meterRegistry) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    /**
+     * Возвращает DTO из кэша или загружает его. Исключение загрузчика пробрасывается, и в кэш ничего не попадает.
+     */
+    public EventDto get(Long eventId, Function<Long, EventDto> loader) {
+        return cache.get(eventId, loader);
+    }
+
+    /**
+     * Сбрасывает событие сразу и еще раз после завершения текущей транзакции: иначе параллельный запрос
+     * мог бы успеть закэшировать еще не закоммиченное старое состояние.
+     */
+    public void evict(Long eventId) {
+        cache.invalidate(eventId);
+        TransactionCallbacks.afterCompletion(() -> cache.invalidate(eventId));
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+        TransactionCallbacks.afterCompletion(cache::invalidateAll);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.ewm.service.event;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.dto.event.EventPage;
+import ru.practicum.ewm.dto.event.EventShortDto;
+import ru.practicum.ewm.model.event.EventSort;
+import ru.practicum.ewm.model.event.PublicEventSearchCriteria;
+import ru.practicum.ewm.repository.FullTextSearchFunctions;
+import ru.practicum.ewm.service.TransactionCallbacks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Кэш страниц публичного поиска событий с коротким временем жизни. Ключ - нормализованные параметры поиска,
+ * поэтому одинаковые по смыслу запросы попадают в одну запись. Просмотры в страницах - сохраненные в events.views.
+ * Статистика попаданий публикуется в метриках cache.* с тегом cache=eventSearches.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EventSearchCache {
+    static final String NAME = "eventSearches";
+
+    Cache<Key, EventPage<EventShortDto>> cache;
+    long bucketSeconds;
+
+    public EventSearchCache(@Value("${ewm.events.search-cache.max-size:1000}") long maxSize,
+                            @Value("${ewm.events.search-cache.ttl-seconds:15}") long ttlSeconds,
+                            @Value("${ewm.events.search-cache.now-bucket-seconds:60}") long bucketSeconds,
+                            MeterRegistry meterRegistry) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.bucketSeconds = bucketSeconds;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    /**
+     * Текущий момент, округленный вниз до начала интервала. Используется вместо now() в диапазонах
+     * по умолчанию, чтобы запросы внутри одного интервала давали один и тот же ключ.
+     */
+    public LocalDateTime now() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        return now.minusSeconds(now.toLocalTime().toSecondOfDay() % bucketSeconds);
+    }
+
+    public EventPage<EventShortDto> get(PublicEventSearchCriteria criteria, EventSort sort,
+                                        Function<Key, EventPage<EventShortDto>> loader) {
+        return cache.get(Key.of(criteria, sort), loader);
+    }
+
+    /**
+     * Сбрасывает страницы, в которые могли попасть события указанных категорий: с фильтром по одной из них
+     * или без фильтра по категориям. Как и для карточек, повторно сбрасывает после завершения транзакции.
+     */
+    public void evict(Collection<Long> categoryIds) {
+        Set<Long> affected = Set.copyOf(categoryIds);
+        Runnable action = () -> cache.asMap().keySet().removeIf(key -> key.affectedBy(affected));
+
+        action.run();
+        TransactionCallbacks.afterCompletion(action);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+        TransactionCallbacks.afterCompletion(cache::invalidateAll);
+    }
+
+    /**
+     * Нормализованные параметры поиска: текст приведен к запросу полнотекстового поиска,
+     * категории отсортированы и без повторов, отсутствующие флаги равны false.
+     */
+    public record Key(String query, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
+                      LocalDateTime rangeEnd, boolean onlyAvailable, Double lat, Double lon, Double radius,
+                      EventSort sort, int from, int size, String cursor) {
+
+        static Key of(PublicEventSearchCriteria criteria, EventSort sort) {
+            return new Key(
+                    criteria.getText() != null ? FullTextSearchFunctions.toPrefixQuery(criteria.getText()) : null,
+                    criteria.getCategories() != null ? criteria.getCategories().stream().distinct().sorted().toList() : null,
+                    criteria.getPaid(),
+                    criteria.getRangeStart(),
+                    criteria.getRangeEnd(),
+                    Boolean.TRUE.equals(criteria.getOnlyAvailable()),
+                    criteria.getLat(),
+                    criteria.getLon(),
+                    criteria.getRadius(),
+                    sort,
+                    criteria.getFrom(),
+                    criteria.getSize(),
+                    criteria.getCursor());
+        }
+
+        boolean affectedBy(Set<Long> categoryIds) {
+            return categories == null || categories.stream().anyMatch(categoryIds::contains);
+        }
+    }
+}
@@ -18,9 +18,9 @@ public interface EventService {
 
     EventDto getEventByIdAndInitiatorId(Long initiatorId, Long eventId);
 
-    List<EventDto> getEventsByCriteria(AdminEventSearchCriteria criteria);
+    EventPage<EventDto> getEventsByCriteria(AdminEventSearchCriteria criteria);
 
-    List<EventShortDto> getEventsByCriteria(PublicEventSearchCriteria criteria, HttpServletRequest request);
+    EventPage<EventShortDto> getEventsByCriteria(PublicEventSearchCriteria criteria, HttpServletRequest request);
 
     EventDto getEventById(Long id, HttpServletRequest request);
 
@@ -13,19 +13,24 @@ import ru.practicum.ewm.dto.event.*;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.NotFoundException;
 import ru.practicum.ewm.exception.NotValidField;
+import ru.practicum.ewm.exception.NotValidRequestParam;
 import ru.practicum.ewm.mapper.event.EventMapper;
 import ru.practicum.ewm.model.*;
 import ru.practicum.ewm.model.event.*;
-import ru.practicum.ewm.model.reaction.Reaction;
 import ru.practicum.ewm.model.reaction.ReactionType;
 import ru.practicum.ewm.repository.CategoryRepository;
 import ru.practicum.ewm.repository.EventRepository;
+import ru.practicum.ewm.repository.ReactionOutboxRepository;
 import ru.practicum.ewm.repository.ReactionRepository;
 import ru.practicum.ewm.repository.UserRepository;
+import ru.practicum.ewm.service.leaderboard.LeaderboardServiceImpl;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,8 +42,14 @@ public class EventServiceImpl implements EventService {
     final UserRepository userRepository;
     final CategoryRepository categoryRepository;
     final ReactionRepository reactionRepository;
+    final ReactionOutboxRepository reactionOutboxRepository;
     final StatsClient statsClient;
+    final EventDtoCache eventDtoCache;
+    final EventSearchCache eventSearchCache;
+    final LeaderboardServiceImpl leaderboardService;
+    final OptimisticLockRetry optimisticLockRetry;
     final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final String EVENT_URI_PREFIX = "/events/";
 
     @Override
     public EventDto saveEvent(NewEventRequest request, Long userId) {
@@ -68,6 +79,10 @@ public class EventServiceImpl implements EventService {
 
     @Override
     public EventDto updateAdminEvent(AdminUpdateEventRequest request, Long eventId) {
+        return optimisticLockRetry.execute("updateAdminEvent", () -> applyAdminUpdate(request, eventId));
+    }
+
+    private EventDto applyAdminUpdate(AdminUpdateEventRequest request, Long eventId) {
         Event existingEvent = getEventOrThrow(eventId);
 
         if (existingEvent.getState().equals(EventState.PUBLISHED) && request.getStateAction().equals(EventAdminUpdateState.PUBLISH_EVENT)) {
@@ -82,15 +97,23 @@ public class EventServiceImpl implements EventService {
             throw new ConflictException(String.format("Нельзя отменить событие с ID - %d, поскольку оно было опубликовано", eventId));
         }
 
+        Long previousCategoryId = existingEvent.getCategory().getId();
         existingEvent = eventMapper.updateAdminEventFields(existingEvent, request);
 
         existingEvent = eventRepository.save(existingEvent);
+        eventDtoCache.evict(eventId);
+        eventSearchCache.evict(List.of(previousCategoryId, existingEvent.getCategory().getId()));
+        leaderboardService.updateEvent(existingEvent);
 
         return eventMapper.toEventDto(existingEvent);
     }
 
     @Override
     public EventDto updateUserEvent(UserUpdateEventRequest request, Long initiatorId, Long eventId) {
+        return optimisticLockRetry.execute("updateUserEvent", () -> applyUserUpdate(request, initiatorId, eventId));
+    }
+
+    private EventDto applyUserUpdate(UserUpdateEventRequest request, Long initiatorId, Long eventId) {
         User user = getUserOrThrow(initiatorId);
         Event existingEvent = getEventOrThrow(eventId);
 
@@ -101,6 +124,7 @@ public class EventServiceImpl implements EventService {
         existingEvent = eventMapper.updateUserEventFields(existingEvent, request);
 
         existingEvent = eventRepository.save(existingEvent);
+        eventDtoCache.evict(eventId);
 
         return eventMapper.toEventDto(existingEvent);
     }
@@ -110,7 +134,7 @@ public class EventServiceImpl implements EventService {
         User user = getUserOrThrow(initiatorId);
         Pageable pageable = PageRequest.of(from, size);
 
-        return eventRepository.findByInitiatorId(initiatorId, pageable).stream()
+        return eventRepository.findShortViewsByInitiatorId(initiatorId, pageable).stream()
                 .map(eventMapper::toEventShortDto)
                 .collect(Collectors.toList());
     }
@@ -124,185 +148,169 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
-    public List<EventDto> getEventsByCriteria(AdminEventSearchCriteria criteria) {
-        LocalDateTime start = criteria.getRangeStart() != null ? criteria.getRangeStart() : LocalDateTime.now();
-        LocalDateTime end = criteria.getRangeEnd() != null ? criteria.getRangeEnd() : LocalDateTime.now().plusYears(100);
+    @Transactional(readOnly = true)
+    public EventPage<EventDto> getEventsByCriteria(AdminEventSearchCriteria criteria) {
+        criteria.setRangeStart(criteria.getRangeStart() != null ? criteria.getRangeStart() : LocalDateTime.now());
+        criteria.setRangeEnd(criteria.getRangeEnd() != null ? criteria.getRangeEnd() : LocalDateTime.now().plusYears(100));
+        EventCursor after = criteria.getCursor() != null ? EventCursor.decode(criteria.getCursor(), EventSort.ID) : null;
 
-        List<Event> events = eventRepository.findEventsByCriteria(criteria.getUsers(), criteria.getStates(),
-                criteria.getCategories(), start, end, PageRequest.of(criteria.getFrom(), criteria.getSize()));
+        List<Event> events = eventRepository.findEvents(criteria, after);
 
-        return events.stream()
+        String nextCursor = nextCursor(events, criteria.getSize(), event -> EventCursor.after(EventSort.ID, event));
+
+        return new EventPage<>(events.stream()
                 .map(eventMapper::toEventDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), nextCursor);
     }
 
     @Override
-    public List<EventShortDto> getEventsByCriteria(PublicEventSearchCriteria criteria, HttpServletRequest request) {
-        LocalDateTime start = criteria.getRangeStart() != null ? criteria.getRangeStart() : LocalDateTime.now();
-        LocalDateTime end = criteria.getRangeEnd() != null ? criteria.getRangeEnd() : LocalDateTime.now().plusYears(100);
-
-        List<Event> events = eventRepository.findEventsByCriteria(
-                criteria.getText(),
-                criteria.getCategories(),
-                criteria.getPaid(),
-                start,
-                end,
-                criteria.getSort(),
-                PageRequest.of(criteria.getFrom(), criteria.getSize())
-        );
-
-        if (criteria.getOnlyAvailable()) {
-            events = events.stream()
-                    .filter(event -> event.getParticipantLimit() == 0 ||
-                            event.getConfirmedRequests() < event.getParticipantLimit())
-                    .collect(Collectors.toList());
+    public EventPage<EventShortDto> getEventsByCriteria(PublicEventSearchCriteria criteria, HttpServletRequest request) {
+        LocalDateTime now = eventSearchCache.now();
+        criteria.setRangeStart(criteria.getRangeStart() != null ? criteria.getRangeStart() : now);
+        criteria.setRangeEnd(criteria.getRangeEnd() != null ? criteria.getRangeEnd() : now.plusYears(100));
+
+        EventSort sort = criteria.getSort() != null ? EventSort.from(criteria.getSort())
+                : criteria.getText() != null ? EventSort.RELEVANCE : EventSort.EVENT_DATE;
+        if (sort == EventSort.DISTANCE && !criteria.hasLocation()) {
+            throw new NotValidRequestParam("Для сортировки DISTANCE нужны параметры lat, lon и radius");
+        }
+
+        EventCursor after = null;
+        if (criteria.getCursor() != null) {
+            if (!sort.supportsCursor()) {
+                throw new NotValidRequestParam(String.format("Для сортировки %s курсор не поддерживается", sort));
+            }
+            after = EventCursor.decode(criteria.getCursor(), sort);
         }
 
+        EventCursor cursor = after;
+        EventPage<EventShortDto> page = eventSearchCache.get(criteria, sort, key -> {
+            List<EventShortView> events = eventRepository.findPublishedEvents(criteria, sort, cursor);
+            String nextCursor = sort.supportsCursor()
+                    ? nextCursor(events, criteria.getSize(), event -> EventCursor.after(sort, event)) : null;
+
+            return new EventPage<>(events.stream()
+                    .map(eventMapper::toEventShortDto)
+                    .toList(), nextCursor);
+        });
+
         statsClient.sendHit(request);
 
-        return events.stream()
-                .map(eventMapper::toEventShortDto)
-                .collect(Collectors.toList());
+        return page;
     }
 
     @Override
     public EventDto getEventById(Long id, HttpServletRequest request) {
-        Event event = getEventOrThrow(id);
-        if (!event.getState().equals(EventState.PUBLISHED)) {
-            throw new NotFoundException(String.format("Событие с ID - %d не найдено", id));
-        }
+        EventDto event = eventDtoCache.get(id, eventId -> {
+            Event existingEvent = getEventOrThrow(eventId);
+            if (!existingEvent.getState().equals(EventState.PUBLISHED)) {
+                throw new NotFoundException(String.format("Событие с ID - %d не найдено", eventId));
+            }
+
+            return eventMapper.toEventDto(existingEvent);
+        });
 
         statsClient.sendHit(request);
         Long views = statsClient.getHitsStats(request.getRequestURI());
-        event.setViews(views);
 
-        return eventMapper.toEventDto(event);
+        return event.toBuilder()
+                .views(views)
+                .build();
     }
 
     @Override
     @Transactional
     public EventDtoWithRating addLike(Long initiatorId, Long eventId, Long likedUserId) {
-        User initiator = getUserOrThrow(initiatorId);
+        getUserOrThrow(initiatorId);
         Event event = getEventOrThrow(eventId);
-        User likedUser = getUserOrThrow(likedUserId);
+        getUserOrThrow(likedUserId);
 
         if (likedUserId.equals(event.getInitiator().getId())) {
             throw new ConflictException("Пользователь не может оценивать свое событие");
         }
 
-        if (reactionRepository.existsReaction(eventId, likedUserId, ReactionType.LIKE)) {
+        Boolean inserted = reactionRepository.upsertReaction(eventId, initiatorId, likedUserId, ReactionType.LIKE);
+        if (inserted == null) {
             throw new ConflictException(String.format("Пользователь c ID - %d уже поставил лайк событию с ID - %d", likedUserId, eventId));
         }
 
-        if (reactionRepository.existsReaction(eventId, likedUserId, ReactionType.DISLIKE)) {
-            reactionRepository.deleteByEventIdAndLikedUserId(eventId, likedUserId);
-        }
-
-        Reaction reaction = Reaction.builder()
-                .eventId(eventId)
-                .eventUserId(initiatorId)
-                .likedUserId(likedUserId)
-                .reaction(ReactionType.LIKE)
-                .build();
-
-        reaction = reactionRepository.save(reaction);
-
-        Long ratingEvent = calculationEventRating(eventId);
-        event.setEventRating(ratingEvent);
-        event = eventRepository.save(event);
-
-        Long ratingUser = calculationUserRating(initiatorId);
-        initiator.setUserRating(ratingUser);
-        initiator = userRepository.save(initiator);
-
-        return eventMapper.toEventDtoWithRating(event);
+        return applyReactionDelta(initiatorId, event, 1, inserted ? 0 : -1);
     }
 
     @Override
     @Transactional
     public EventDtoWithRating addDislike(Long initiatorId, Long eventId, Long dislikedUserId) {
-        User initiator = getUserOrThrow(initiatorId);
+        getUserOrThrow(initiatorId);
         Event event = getEventOrThrow(eventId);
-        User dislikedUser = getUserOrThrow(dislikedUserId);
+        getUserOrThrow(dislikedUserId);
 
         if (dislikedUserId.equals(event.getInitiator().getId())) {
             throw new ConflictException("Пользователь не может оценивать свое событие");
         }
 
-        if (reactionRepository.existsReaction(eventId, dislikedUserId, ReactionType.DISLIKE)) {
+        Boolean inserted = reactionRepository.upsertReaction(eventId, initiatorId, dislikedUserId, ReactionType.DISLIKE);
+        if (inserted == null) {
             throw new ConflictException(String.format("Пользователь c ID - %d уже поставил дизлайк событию с ID - %d", dislikedUserId, eventId));
         }
 
-        if (reactionRepository.existsReaction(eventId, dislikedUserId, ReactionType.LIKE)) {
-            reactionRepository.deleteByEventIdAndLikedUserId(eventId, dislikedUserId);
-        }
-
-        Reaction reaction = Reaction.builder()
-                .eventId(eventId)
-                .eventUserId(initiatorId)
-                .likedUserId(dislikedUserId)
-                .reaction(ReactionType.DISLIKE)
-                .build();
-
-        reaction = reactionRepository.save(reaction);
-
-        Long ratingEvent = calculationEventRating(eventId);
-        event.setEventRating(ratingEvent);
-        event = eventRepository.save(event);
-
-        Long ratingUser = calculationUserRating(initiatorId);
-        initiator.setUserRating(ratingUser);
-        initiator = userRepository.save(initiator);
-
-        return eventMapper.toEventDtoWithRating(event);
+        return applyReactionDelta(initiatorId, event, inserted ? 0 : -1, 1);
     }
 
     @Override
     @Transactional
     public EventDtoWithRating removeLike(Long initiatorId, Long eventId, Long likedUserId) {
-        User initiator = getUserOrThrow(initiatorId);
+        getUserOrThrow(initiatorId);
         Event event = getEventOrThrow(eventId);
-        User likedUser = getUserOrThrow(likedUserId);
+        getUserOrThrow(likedUserId);
 
-        if (!reactionRepository.existsReaction(eventId, likedUserId, ReactionType.LIKE)) {
+        if (reactionRepository.deleteReaction(eventId, likedUserId, ReactionType.LIKE) == 0) {
             throw new NotFoundException(String.format("Пользователь с ID - %d не ставил лайка на мероприятие с ID - %d", likedUserId, eventId));
         }
 
-        reactionRepository.deleteByEventIdAndLikedUserId(eventId, likedUserId);
-
-        Long ratingEvent = calculationEventRating(eventId);
-        event.setEventRating(ratingEvent);
-        event = eventRepository.save(event);
-
-        Long ratingUser = calculationUserRating(initiatorId);
-        initiator.setUserRating(ratingUser);
-        initiator = userRepository.save(initiator);
-
-        return eventMapper.toEventDtoWithRating(event);
+        return applyReactionDelta(initiatorId, event, -1, 0);
     }
 
     @Override
     @Transactional
     public EventDtoWithRating removeDislike(Long initiatorId, Long eventId, Long dislikedUserId) {
-        User initiator = getUserOrThrow(initiatorId);
+        getUserOrThrow(initiatorId);
         Event event = getEventOrThrow(eventId);
-        User dislikedUser = getUserOrThrow(dislikedUserId);
+        getUserOrThrow(dislikedUserId);
 
-        if (!reactionRepository.existsReaction(eventId, dislikedUserId, ReactionType.DISLIKE)) {
+        if (reactionRepository.deleteReaction(eventId, dislikedUserId, ReactionType.DISLIKE) == 0) {
             throw new NotFoundException(String.format("Пользователь с ID - %d не ставил дизлайк на мероприятие с ID - %d", dislikedUserId, eventId));
         }
 
-        reactionRepository.deleteByEventIdAndLikedUserId(eventId, dislikedUserId);
+        return applyReactionDelta(initiatorId, event, 0, -1);
+    }
 
-        Long ratingEvent = calculationEventRating(eventId);
-        event.setEventRating(ratingEvent);
-        event = eventRepository.save(event);
+    /**
+     * Маппит события в короткие DTO и заполняет просмотры одним запросом к сервису статистики.
+     * Если статистика недоступна, остаются просмотры, сохраненные в событии.
+     */
+    public List<EventShortDto> toEventShortDtosWithViews(Collection<Event> events) {
+        Map<String, Long> views = statsClient.getViews(events.stream()
+                .map(event -> EVENT_URI_PREFIX + event.getId())
+                .toList());
 
-        Long ratingUser = calculationUserRating(initiatorId);
-        initiator.setUserRating(ratingUser);
-        initiator = userRepository.save(initiator);
+        return events.stream()
+                .map(event -> {
+                    EventShortDto dto = eventMapper.toEventShortDto(event);
+                    dto.setViews(views.getOrDefault(EVENT_URI_PREFIX + event.getId(), event.getViews()));
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
 
-        return eventMapper.toEventDtoWithRating(event);
+    /**
+     * Курсор следующей страницы строится по последнему событию страницы. Неполная страница означает конец выдачи.
+     */
+    private <T> String nextCursor(List<T> events, int size, Function<T, EventCursor> cursor) {
+        if (events.isEmpty() || events.size() < size) {
+            return null;
+        }
+
+        return cursor.apply(events.get(events.size() - 1)).encode();
     }
 
     private User getUserOrThrow(Long userId) {
@@ -315,17 +323,14 @@ public class EventServiceImpl implements EventService {
                 .orElseThrow(() -> new NotFoundException(String.format("Событие с ID - %d не найдено", eventId)));
     }
 
-    private Long calculationEventRating(Long eventId) {
-        Long likesByEvent = reactionRepository.countReactionsByEvent(eventId, ReactionType.LIKE);
-        Long dislikesByEvent = reactionRepository.countReactionsByEvent(eventId, ReactionType.DISLIKE);
-
-        return likesByEvent - dislikesByEvent;
-    }
-
-    private Long calculationUserRating(Long userId) {
-        Long likesByInitiator = reactionRepository.countReactionsByInitiator(userId, ReactionType.LIKE);
-        Long dislikesByInitiator = reactionRepository.countReactionsByInitiator(userId, ReactionType.DISLIKE);
+    /**
+     * Ставит изменение счетчиков в очередь reaction_outbox в той же транзакции, что и реакция.
+     * Рейтинги в events и users сдвигает ReactionOutboxProcessor, а в ответ сразу идет ожидаемый рейтинг.
+     */
+    private EventDtoWithRating applyReactionDelta(Long initiatorId, Event event, long likes, long dislikes) {
+        reactionOutboxRepository.add(event.getId(), initiatorId, likes, dislikes);
+        event.setEventRating(event.getEventRating() + likes - dislikes);
 
-        return likesByInitiator - dislikesByInitiator;
+        return eventMapper.toEventDtoWithRating(event);
     }
 }
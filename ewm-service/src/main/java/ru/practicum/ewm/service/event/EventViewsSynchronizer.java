@@ -0,0 +1,99 @@
+package ru.practicum.ewm.service.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.client.StatsClient;
+import ru.practicum.ewm.repository.EventViewsRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Переносит просмотры опубликованных событий из сервиса статистики в events.views, по которому сортирует поиск.
+ * События обходятся пачками по id, просмотры пачки запрашиваются одним вызовом, записываются только изменившиеся.
+ * Метрика events.views.sync.lag - сколько секунд назад начался последний успешно завершенный проход.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EventViewsSynchronizer {
+    EventViewsRepository eventViewsRepository;
+    StatsClient statsClient;
+    int batchSize;
+    AtomicReference<Instant> syncedAt = new AtomicReference<>(Instant.now());
+    Counter updatedEvents;
+
+    public EventViewsSynchronizer(EventViewsRepository eventViewsRepository,
+                                  StatsClient statsClient,
+                                  @Value("${ewm.views-sync.batch-size:500}") int batchSize,
+                                  MeterRegistry meterRegistry) {
+        this.eventViewsRepository = eventViewsRepository;
+        this.statsClient = statsClient;
+        this.batchSize = batchSize;
+
+        Gauge.builder("events.views.sync.lag", this, synchronizer -> synchronizer.getLag().toMillis() / 1000.0)
+                .description("Время с начала последней успешной синхронизации просмотров")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        updatedEvents = Counter.builder("events.views.sync.updated")
+                .description("Число событий, у которых синхронизация изменила просмотры")
+                .register(meterRegistry);
+    }
+
+    public Duration getLag() {
+        return Duration.between(syncedAt.get(), Instant.now());
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.views-sync.interval-ms:30000}")
+    public synchronized void sync() {
+        Instant started = Instant.now();
+        long afterId = 0;
+        int updated = 0;
+
+        while (true) {
+            Map<Long, Long> stored = eventViewsRepository.findPublishedViews(afterId, batchSize);
+            if (stored.isEmpty()) {
+                break;
+            }
+
+            Map<String, Long> views = statsClient.getViews(stored.keySet().stream()
+                    .map(id -> EventServiceImpl.EVENT_URI_PREFIX + id)
+                    .toList());
+            if (views.isEmpty()) {
+                // Сервис статистики отвечает на каждый uri, пустой ответ означает его недоступность
+                log.warn("Синхронизация просмотров прервана: сервис статистики недоступен");
+                return;
+            }
+
+            Map<Long, Long> changed = new LinkedHashMap<>();
+            for (Map.Entry<Long, Long> event : stored.entrySet()) {
+                Long actual = views.get(EventServiceImpl.EVENT_URI_PREFIX + event.getKey());
+                if (actual != null && !actual.equals(event.getValue())) {
+                    changed.put(event.getKey(), actual);
+                }
+                afterId = event.getKey();
+            }
+
+            eventViewsRepository.updateViews(changed);
+            updated += changed.size();
+
+            if (stored.size() < batchSize) {
+                break;
+            }
+        }
+
+        updatedEvents.increment(updated);
+        syncedAt.set(started);
+        log.debug("Синхронизация просмотров завершена, обновлено событий: {}", updated);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.ewm.service.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.exception.ConflictException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет изменение версионируемых сущностей в отдельной транзакции и повторяет его, если параллельный
+ * запрос успел изменить ту же строку. Между попытками - экспоненциальная пауза со случайным разбросом,
+ * после последней неудачной попытки - ConflictException. Конфликты считаются в метриках
+ * optimistic.lock.conflicts и optimistic.lock.exhausted с тегом operation.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class OptimisticLockRetry {
+    TransactionTemplate transactionTemplate;
+    int maxAttempts;
+    long backoffMs;
+    MeterRegistry meterRegistry;
+
+    public OptimisticLockRetry(PlatformTransactionManager transactionManager,
+                               @Value("${ewm.optimistic-lock.max-attempts:5}") int maxAttempts,
+                               @Value("${ewm.optimistic-lock.backoff-ms:20}") long backoffMs,
+                               MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                counter("optimistic.lock.conflicts", operation).increment();
+
+                if (attempt >= maxAttempts) {
+                    counter("optimistic.lock.exhausted", operation).increment();
+                    log.warn("Операция {} не выполнена после {} попыток из-за параллельных изменений", operation, attempt);
+                    throw new ConflictException("Данные одновременно изменяются другим запросом, повторите попытку");
+                }
+
+                log.debug("Операция {} столкнулась с параллельным изменением, попытка {}", operation, attempt);
+                pause(attempt);
+            }
+        }
+    }
+
+    private void pause(int attempt) {
+        long delay = backoffMs << (attempt - 1);
+        if (delay <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(delay + ThreadLocalRandom.current().nextLong(delay));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Данные одновременно изменяются другим запросом, повторите попытку");
+        }
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.ewm.service.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.repository.EventRepository;
+import ru.practicum.ewm.repository.UserRepository;
+import ru.practicum.ewm.service.TransactionCallbacks;
+import ru.practicum.ewm.service.leaderboard.LeaderboardServiceImpl;
+
+/**
+ * Сверяет счетчики лайков и дизлайков событий и пользователей с таблицей reactions и исправляет расхождения.
+ * В обычной работе счетчики сдвигаются через reaction_outbox, сверка нужна после ручных правок данных.
+ * Рейтинговые таблицы перестраиваются после коммита, чтобы при откате в них не остались отмененные исправления.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@AllArgsConstructor
+public class RatingReconciler {
+    EventRepository eventRepository;
+    UserRepository userRepository;
+    EventDtoCache eventDtoCache;
+    EventSearchCache eventSearchCache;
+    LeaderboardServiceImpl leaderboardService;
+
+    @Scheduled(cron = "${ewm.ratings.reconcile-cron:0 0 4 * * *}")
+    @Transactional
+    public void reconcile() {
+        int events = eventRepository.reconcileReactions();
+        int users = userRepository.reconcileReactions();
+
+        if (events > 0) {
+            eventDtoCache.evictAll();
+            eventSearchCache.evictAll();
+        }
+
+        if (events > 0 || users > 0) {
+            TransactionCallbacks.afterCommit(leaderboardService::rebuild);
+            log.warn("Сверка рейтингов исправила счетчики: событий - {}, пользователей - {}", events, users);
+        } else {
+            log.debug("Сверка рейтингов расхождений не нашла");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.ewm.service.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.model.reaction.ReactionDelta;
+import ru.practicum.ewm.model.reaction.UserReactionDelta;
+import ru.practicum.ewm.repository.ReactionOutboxRepository;
+import ru.practicum.ewm.service.leaderboard.LeaderboardServiceImpl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Переносит изменения из reaction_outbox в счетчики и рейтинги событий и пользователей.
+ * Изменения пачки суммируются, поэтому серия реакций на одно событие дает один UPDATE его строки.
+ * Строки обновляются в порядке id, чтобы параллельные обработчики не взаимоблокировались.
+ * После коммита новые рейтинги попадают в рейтинговые таблицы в памяти.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReactionOutboxProcessor {
+    ReactionOutboxRepository reactionOutboxRepository;
+    EventDtoCache eventDtoCache;
+    EventSearchCache eventSearchCache;
+    LeaderboardServiceImpl leaderboardService;
+    int batchSize;
+    Counter appliedReactions;
+
+    public ReactionOutboxProcessor(ReactionOutboxRepository reactionOutboxRepository,
+                                   EventDtoCache eventDtoCache,
+                                   EventSearchCache eventSearchCache,
+                                   LeaderboardServiceImpl leaderboardService,
+                                   @Value("${ewm.ratings.outbox.batch-size:1000}") int batchSize,
+                                   MeterRegistry meterRegistry) {
+        this.reactionOutboxRepository = reactionOutboxRepository;
+        this.eventDtoCache = eventDtoCache;
+        this.eventSearchCache = eventSearchCache;
+        this.leaderboardService = leaderboardService;
+        this.batchSize = batchSize;
+
+        appliedReactions = Counter.builder("ratings.outbox.applied")
+                .description("Число изменений реакций, перенесенных в рейтинги")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.ratings.outbox.interval-ms:1000}")
+    @Transactional
+    public int process() {
+        List<ReactionDelta> deltas = reactionOutboxRepository.poll(batchSize);
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, ReactionDelta> byEvent = sumByEvent(deltas);
+        Map<Long, UserReactionDelta> byUser = sumByUser(deltas);
+
+        reactionOutboxRepository.applyToEvents(byEvent.values());
+        reactionOutboxRepository.applyToUsers(byUser.values());
+
+        byEvent.keySet().forEach(eventDtoCache::evict);
+        eventSearchCache.evict(byEvent.values().stream()
+                .map(ReactionDelta::categoryId)
+                .collect(Collectors.toSet()));
+        leaderboardService.refreshEvents(byEvent.keySet());
+        leaderboardService.refreshUsers(byUser.keySet());
+
+        appliedReactions.increment(deltas.size());
+        log.debug("Из очереди реакций перенесено изменений: {}, обновлено событий: {}, пользователей: {}",
+                deltas.size(), byEvent.size(), byUser.size());
+
+        return deltas.size();
+    }
+
+    private static Map<Long, ReactionDelta> sumByEvent(List<ReactionDelta> deltas) {
+        Map<Long, ReactionDelta> sums = deltas.stream()
+                .collect(Collectors.toMap(ReactionDelta::eventId, Function.identity(), ReactionDelta::plus, TreeMap::new));
+        sums.values().removeIf(ReactionDelta::isEmpty);
+
+        return sums;
+    }
+
+    private static Map<Long, UserReactionDelta> sumByUser(List<ReactionDelta> deltas) {
+        Map<Long, UserReactionDelta> sums = deltas.stream()
+                .map(UserReactionDelta::of)
+                .collect(Collectors.toMap(UserReactionDelta::userId, Function.identity(), UserReactionDelta::plus,
+                        TreeMap::new));
+        sums.values().removeIf(UserReactionDelta::isEmpty);
+
+        return sums;
+    }
+}
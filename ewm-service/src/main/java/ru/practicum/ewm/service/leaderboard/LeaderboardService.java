@@ -0,0 +1,12 @@
+package ru.practicum.ewm.service.leaderboard;
+
+import ru.practicum.ewm.dto.event.EventRatingDto;
+import ru.practicum.ewm.dto.user.UserRatingDto;
+
+import java.util.List;
+
+public interface LeaderboardService {
+    List<EventRatingDto> getTopEvents(Long categoryId, int size);
+
+    List<UserRatingDto> getTopUsers(int size);
+}
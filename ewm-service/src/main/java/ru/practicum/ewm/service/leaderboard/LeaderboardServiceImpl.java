@@ -0,0 +1,190 @@
+package ru.practicum.ewm.service.leaderboard;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ru.practicum.ewm.dto.event.EventRatingDto;
+import ru.practicum.ewm.dto.user.UserRatingDto;
+import ru.practicum.ewm.exception.NotValidRequestParam;
+import ru.practicum.ewm.model.User;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.event.EventState;
+import ru.practicum.ewm.model.leaderboard.LeaderboardEntry;
+import ru.practicum.ewm.repository.LeaderboardRepository;
+import ru.practicum.ewm.service.TransactionCallbacks;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Рейтинговые таблицы событий (общая и по категориям) и пользователей, которые держатся в памяти.
+ * Строятся из базы при старте и после сверки рейтингов, дальше обновляются точечно после коммита
+ * изменений: переноса реакций из очереди, публикации и правки событий, создания и удаления пользователей.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LeaderboardServiceImpl implements LeaderboardService {
+    static final int MAX_SIZE = 100;
+
+    final LeaderboardRepository leaderboardRepository;
+    volatile Boards boards = new Boards();
+
+    @Override
+    public List<EventRatingDto> getTopEvents(Long categoryId, int size) {
+        checkSize(size);
+        Boards current = boards;
+        RatingLeaderboard leaderboard = categoryId == null ? current.events : current.categories.get(categoryId);
+
+        if (leaderboard == null) {
+            return List.of();
+        }
+
+        return leaderboard.top(size).stream()
+                .map(entry -> EventRatingDto.builder()
+                        .id(entry.id())
+                        .category(entry.categoryId())
+                        .title(entry.name())
+                        .eventRating(entry.rating())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    public List<UserRatingDto> getTopUsers(int size) {
+        checkSize(size);
+
+        return boards.users.top(size).stream()
+                .map(entry -> UserRatingDto.builder()
+                        .id(entry.id())
+                        .name(entry.name())
+                        .userRating(entry.rating())
+                        .build())
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Boards rebuilt = new Boards();
+        leaderboardRepository.findEvents().forEach(rebuilt::putEvent);
+        leaderboardRepository.findUsers().forEach(rebuilt.users::put);
+
+        boards = rebuilt;
+        log.info("Рейтинговые таблицы построены: событий - {}, пользователей - {}",
+                rebuilt.events.entries.size(), rebuilt.users.entries.size());
+    }
+
+    /**
+     * Перечитывает рейтинги указанных событий в текущей транзакции и применяет их после коммита.
+     * Неопубликованные события убираются из таблиц.
+     */
+    public void refreshEvents(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, LeaderboardEntry> entries = byId(leaderboardRepository.findEvents(eventIds));
+        TransactionCallbacks.afterCommit(() -> eventIds.forEach(id -> putOrRemoveEvent(id, entries.get(id))));
+    }
+
+    public void refreshUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, LeaderboardEntry> entries = byId(leaderboardRepository.findUsers(userIds));
+        TransactionCallbacks.afterCommit(() -> userIds.forEach(id -> putOrRemoveUser(id, entries.get(id))));
+    }
+
+    /**
+     * Переносит в таблицы сохраненное событие: изменения сущности могут быть еще не сброшены в базу,
+     * поэтому значения берутся из нее, а не перечитываются.
+     */
+    public void updateEvent(Event event) {
+        LeaderboardEntry entry = event.getState() == EventState.PUBLISHED
+                ? new LeaderboardEntry(event.getId(), event.getCategory().getId(), event.getTitle(), event.getEventRating())
+                : null;
+
+        TransactionCallbacks.afterCommit(() -> putOrRemoveEvent(event.getId(), entry));
+    }
+
+    public void updateUser(User user) {
+        LeaderboardEntry entry = new LeaderboardEntry(user.getId(), null, user.getName(), user.getUserRating());
+
+        TransactionCallbacks.afterCommit(() -> putOrRemoveUser(user.getId(), entry));
+    }
+
+    public void removeUser(Long userId) {
+        TransactionCallbacks.afterCommit(() -> putOrRemoveUser(userId, null));
+    }
+
+    private synchronized void putOrRemoveEvent(Long id, LeaderboardEntry entry) {
+        if (entry != null) {
+            boards.putEvent(entry);
+        } else {
+            boards.removeEvent(id);
+        }
+    }
+
+    private synchronized void putOrRemoveUser(Long id, LeaderboardEntry entry) {
+        if (entry != null) {
+            boards.users.put(entry);
+        } else {
+            boards.users.remove(id);
+        }
+    }
+
+    private void checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new NotValidRequestParam(String.format("Размер рейтинга должен быть от 1 до %d", MAX_SIZE));
+        }
+    }
+
+    private static Map<Long, LeaderboardEntry> byId(List<LeaderboardEntry> entries) {
+        return entries.stream()
+                .collect(Collectors.toMap(LeaderboardEntry::id, Function.identity()));
+    }
+
+    /**
+     * Набор таблиц, который при перестроении заменяется целиком.
+     */
+    static class Boards {
+        final RatingLeaderboard events = new RatingLeaderboard();
+        final Map<Long, RatingLeaderboard> categories = new ConcurrentHashMap<>();
+        final RatingLeaderboard users = new RatingLeaderboard();
+
+        void putEvent(LeaderboardEntry entry) {
+            LeaderboardEntry previous = events.get(entry.id());
+            if (previous != null && !previous.categoryId().equals(entry.categoryId())) {
+                removeFromCategory(previous);
+            }
+
+            events.put(entry);
+            categories.computeIfAbsent(entry.categoryId(), id -> new RatingLeaderboard()).put(entry);
+        }
+
+        void removeEvent(Long id) {
+            LeaderboardEntry previous = events.get(id);
+            if (previous != null) {
+                events.remove(id);
+                removeFromCategory(previous);
+            }
+        }
+
+        private void removeFromCategory(LeaderboardEntry entry) {
+            RatingLeaderboard category = categories.get(entry.categoryId());
+            if (category != null) {
+                category.remove(entry.id());
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.ewm.service.leaderboard;
+
+import ru.practicum.ewm.model.leaderboard.LeaderboardEntry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Упорядоченная по (рейтинг, id) таблица в памяти. Чтение верхних позиций не блокируется и не зависит
+ * от размера таблицы, изменение позиции - удаление и вставка в skip list за O(log n).
+ */
+class RatingLeaderboard {
+    final NavigableSet<LeaderboardEntry> ranking = new ConcurrentSkipListSet<>(LeaderboardEntry.ORDER);
+    final Map<Long, LeaderboardEntry> entries = new ConcurrentHashMap<>();
+
+    LeaderboardEntry get(Long id) {
+        return entries.get(id);
+    }
+
+    void put(LeaderboardEntry entry) {
+        entries.compute(entry.id(), (id, previous) -> {
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+            ranking.add(entry);
+            return entry;
+        });
+    }
+
+    void remove(Long id) {
+        entries.computeIfPresent(id, (key, previous) -> {
+            ranking.remove(previous);
+            return null;
+        });
+    }
+
+    List<LeaderboardEntry> top(int size) {
+        return ranking.stream()
+                .limit(size)
+                .toList();
+    }
+}
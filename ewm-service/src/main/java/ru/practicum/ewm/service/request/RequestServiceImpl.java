@@ -18,6 +18,9 @@ import ru.practicum.ewm.model.event.EventState;
 import ru.practicum.ewm.repository.EventRepository;
 import ru.practicum.ewm.repository.RequestRepository;
 import ru.practicum.ewm.repository.UserRepository;
+import ru.practicum.ewm.service.event.EventDtoCache;
+import ru.practicum.ewm.service.event.EventSearchCache;
+import ru.practicum.ewm.service.event.OptimisticLockRetry;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -32,9 +35,16 @@ public class RequestServiceImpl implements RequestService {
     final RequestMapper requestMapper;
     final UserRepository userRepository;
     final EventRepository eventRepository;
+    final EventDtoCache eventDtoCache;
+    final EventSearchCache eventSearchCache;
+    final OptimisticLockRetry optimisticLockRetry;
 
     @Override
     public RequestDto saveRequest(Long userId, Long eventId) {
+        return optimisticLockRetry.execute("saveRequest", () -> createRequest(userId, eventId));
+    }
+
+    private RequestDto createRequest(Long userId, Long eventId) {
         User user = getUserOrThrow(userId);
         Event event = getEventOrThrow(eventId);
 
@@ -79,6 +89,8 @@ public class RequestServiceImpl implements RequestService {
             Long countConfirmedRequests = event.getConfirmedRequests() + 1;
             event.setConfirmedRequests(countConfirmedRequests);
             eventRepository.save(event);
+            eventDtoCache.evict(eventId);
+            eventSearchCache.evict(List.of(event.getCategory().getId()));
         }
 
         return requestMapper.toRequestDto(newRequest);
@@ -118,6 +130,10 @@ public class RequestServiceImpl implements RequestService {
 
     @Override
     public EventRequestStatusUpdateResult updateStatusRequest(Long userId, Long eventId, EventRequestStatusUpdateRequest request) {
+        return optimisticLockRetry.execute("updateStatusRequest", () -> applyStatusUpdate(userId, eventId, request));
+    }
+
+    private EventRequestStatusUpdateResult applyStatusUpdate(Long userId, Long eventId, EventRequestStatusUpdateRequest request) {
         User user = getUserOrThrow(userId);
         Event event = getEventOrThrow(eventId);
 
@@ -154,6 +170,8 @@ public class RequestServiceImpl implements RequestService {
 
         event.setConfirmedRequests(confirmedCount);
         eventRepository.save(event);
+        eventDtoCache.evict(eventId);
+        eventSearchCache.evict(List.of(event.getCategory().getId()));
 
         EventRequestStatusUpdateResult result = new EventRequestStatusUpdateResult();
         result.setConfirmedRequests(confirmedRequests);
@@ -12,6 +12,7 @@ import ru.practicum.ewm.exception.NotFoundException;
 import ru.practicum.ewm.mapper.user.UserMapper;
 import ru.practicum.ewm.model.User;
 import ru.practicum.ewm.repository.UserRepository;
+import ru.practicum.ewm.service.leaderboard.LeaderboardServiceImpl;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,6 +23,7 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
     final UserRepository userRepository;
     final UserMapper userMapper;
+    final LeaderboardServiceImpl leaderboardService;
 
     @Override
     public UserDto saveUser(NewUserRequest request) {
@@ -29,6 +31,7 @@ public class UserServiceImpl implements UserService {
         newUser.setUserRating(0L);
 
         newUser = userRepository.save(newUser);
+        leaderboardService.updateUser(newUser);
 
         return userMapper.toUserDto(newUser);
     }
@@ -54,5 +57,6 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new NotFoundException(String.format("Пользователь с ID - %d не найден", id)));
 
         userRepository.delete(user);
+        leaderboardService.removeUser(id);
     }
 }
@@ -5,6 +5,7 @@ DROP TABLE IF EXISTS requests CASCADE;
 DROP TABLE IF EXISTS compilations CASCADE;
 DROP TABLE IF EXISTS compilation_events CASCADE;
 DROP TABLE IF EXISTS reactions CASCADE;
+DROP TABLE IF EXISTS reaction_outbox CASCADE;
 
 CREATE TABLE IF NOT EXISTS categories (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -17,6 +18,9 @@ CREATE TABLE IF NOT EXISTS users (
   name VARCHAR(250) NOT NULL,
   email VARCHAR(254) NOT NULL UNIQUE,
   user_rating BIGINT DEFAULT 0,
+  likes BIGINT NOT NULL DEFAULT 0,
+  dislikes BIGINT NOT NULL DEFAULT 0,
+  version BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_user PRIMARY KEY (id)
 );
 
@@ -39,11 +43,28 @@ CREATE TABLE IF NOT EXISTS events (
     title VARCHAR(120) NOT NULL,
     views BIGINT DEFAULT 0,
     event_rating BIGINT DEFAULT 0,
+    likes BIGINT NOT NULL DEFAULT 0,
+    dislikes BIGINT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0,
+    search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', title), 'A') ||
+        setweight(to_tsvector('simple', annotation), 'B') ||
+        setweight(to_tsvector('simple', description), 'C')) STORED,
     CONSTRAINT pk_event PRIMARY KEY (id),
     CONSTRAINT fk_category_id FOREIGN KEY (category_id) REFERENCES categories (id),
     CONSTRAINT fk_initiator_id FOREIGN KEY (initiator_id) REFERENCES users (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_events_search_vector ON events USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_events_state_date ON events (state, event_date, id);
+CREATE INDEX IF NOT EXISTS idx_events_state_views ON events (state, views DESC, id);
+CREATE INDEX IF NOT EXISTS idx_events_state_rating ON events (state, event_rating DESC, id);
+CREATE INDEX IF NOT EXISTS idx_events_category_date ON events (category_id, event_date, id);
+CREATE INDEX IF NOT EXISTS idx_events_initiator ON events (initiator_id, id);
+CREATE INDEX IF NOT EXISTS idx_events_available_date ON events (event_date, id)
+    WHERE state = 'PUBLISHED' AND (participant_limit = 0 OR confirmed_requests < participant_limit);
+CREATE INDEX IF NOT EXISTS idx_events_location ON events USING GIST (point(lon, lat)) WHERE state = 'PUBLISHED';
+
 CREATE TABLE IF NOT EXISTS requests (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     event_id BIGINT NOT NULL,
@@ -77,7 +98,19 @@ CREATE TABLE IF NOT EXISTS reactions (
     liked_user_id BIGINT,
     reaction VARCHAR(10),
     CONSTRAINT pk_reaction PRIMARY KEY (id),
+    CONSTRAINT uq_reaction_event_user UNIQUE (event_id, liked_user_id),
     FOREIGN KEY (event_id) REFERENCES events(id),
     FOREIGN KEY (event_user_id) REFERENCES users(id),
     FOREIGN KEY (liked_user_id) REFERENCES users(id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS reaction_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    event_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    likes BIGINT NOT NULL,
+    dislikes BIGINT NOT NULL,
+    CONSTRAINT pk_reaction_outbox PRIMARY KEY (id),
+    FOREIGN KEY (event_id) REFERENCES events(id),
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
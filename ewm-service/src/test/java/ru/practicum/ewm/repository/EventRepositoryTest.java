@@ -0,0 +1,185 @@
+package ru.practicum.ewm.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.ewm.model.Category;
+import ru.practicum.ewm.model.Compilation;
+import ru.practicum.ewm.model.Location;
+import ru.practicum.ewm.model.User;
+import ru.practicum.ewm.model.event.AdminEventSearchCriteria;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.event.EventCursor;
+import ru.practicum.ewm.model.event.EventShortView;
+import ru.practicum.ewm.model.event.EventSort;
+import ru.practicum.ewm.model.event.EventState;
+import ru.practicum.ewm.model.event.PublicEventSearchCriteria;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Проверяет, что страница событий загружается фиксированным числом SQL-запросов
+ * независимо от числа разных категорий и инициаторов на странице.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class EventRepositoryTest {
+    static final int EVENTS = 5;
+
+    @Autowired
+    TestEntityManager em;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    CompilationRepository compilationRepository;
+
+    Statistics statistics;
+    User initiator;
+    List<Event> events;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        initiator = null;
+        events = new ArrayList<>();
+
+        for (int i = 0; i < EVENTS; i++) {
+            Category category = em.persist(Category.builder().name("category" + i).build());
+            User user = em.persist(User.builder().name("user" + i).email("user" + i + "@mail.ru").userRating(0L).build());
+            if (initiator == null) {
+                initiator = user;
+            }
+            events.add(em.persist(event(category, i % 2 == 0 ? initiator : user, i)));
+        }
+
+        em.persist(Compilation.builder().title("first").pinned(true).events(new HashSet<>(events)).build());
+        em.persist(Compilation.builder().title("second").pinned(true).events(Set.of(events.get(0))).build());
+        em.flush();
+        em.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void findPublishedEventsUsesSingleStatement() {
+        PublicEventSearchCriteria criteria = PublicEventSearchCriteria.builder()
+                .rangeStart(LocalDateTime.now())
+                .rangeEnd(LocalDateTime.now().plusYears(1))
+                .onlyAvailable(false)
+                .size(10)
+                .build();
+
+        List<EventShortView> result = eventRepository.findPublishedEvents(criteria, EventSort.EVENT_DATE, null);
+
+        assertEquals(EVENTS, result.size());
+        assertNotNull(result.get(0).categoryName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findEventsUsesSingleStatement() {
+        AdminEventSearchCriteria criteria = AdminEventSearchCriteria.builder()
+                .rangeStart(LocalDateTime.now())
+                .rangeEnd(LocalDateTime.now().plusYears(1))
+                .size(10)
+                .build();
+
+        List<Event> result = eventRepository.findEvents(criteria, null);
+        touch(result);
+
+        assertEquals(EVENTS, result.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findEventsAppliesFiltersAfterCursor() {
+        AdminEventSearchCriteria criteria = AdminEventSearchCriteria.builder()
+                .users(List.of(initiator.getId()))
+                .states(List.of(EventState.PUBLISHED))
+                .rangeStart(LocalDateTime.now())
+                .rangeEnd(LocalDateTime.now().plusYears(1))
+                .size(10)
+                .build();
+
+        List<Event> result = eventRepository.findEvents(criteria, EventCursor.after(EventSort.ID, events.get(0)));
+
+        assertEquals(List.of(events.get(2).getId(), events.get(4).getId()),
+                result.stream().map(Event::getId).toList());
+    }
+
+    @Test
+    void findShortViewsByInitiatorIdUsesSingleStatement() {
+        List<EventShortView> result = eventRepository.findShortViewsByInitiatorId(initiator.getId(),
+                PageRequest.of(0, 10));
+
+        assertEquals(3, result.size());
+        assertEquals(initiator.getName(), result.get(0).initiatorName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void compilationPageUsesTwoStatements() {
+        List<Long> ids = compilationRepository.findIds(true, PageRequest.of(0, 10));
+        List<Compilation> result = compilationRepository.findByIdIn(ids);
+        result.forEach(compilation -> touch(List.copyOf(compilation.getEvents())));
+
+        assertEquals(2, result.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private void touch(List<Event> result) {
+        result.forEach(event -> {
+            event.getCategory().getName();
+            event.getInitiator().getName();
+        });
+    }
+
+    private Event event(Category category, User user, int index) {
+        Location location = new Location();
+        location.setLat(55.75f);
+        location.setLon(37.61f);
+
+        return Event.builder()
+                .annotation("annotation " + index)
+                .description("description " + index)
+                .title("title " + index)
+                .category(category)
+                .initiator(user)
+                .createdOn(LocalDateTime.now())
+                .eventDate(LocalDateTime.now().plusDays(index + 1))
+                .location(location)
+                .paid(false)
+                .participantLimit(0)
+                .requestModeration(true)
+                .confirmedRequests(0L)
+                .views(0L)
+                .eventRating(0L)
+                .state(EventState.PUBLISHED)
+                .build();
+    }
+}
@@ -18,6 +18,8 @@ import ru.practicum.ewm.mapper.category.CategoryMapper;
 import ru.practicum.ewm.model.Category;
 import ru.practicum.ewm.repository.CategoryRepository;
 import ru.practicum.ewm.repository.EventRepository;
+import ru.practicum.ewm.service.event.EventDtoCache;
+import ru.practicum.ewm.service.event.EventSearchCache;
 
 import java.util.Collections;
 import java.util.List;
@@ -41,6 +43,12 @@ class CategoryServiceImplTest {
     @Mock
     CategoryMapper categoryMapper;
 
+    @Mock
+    EventDtoCache eventDtoCache;
+
+    @Mock
+    EventSearchCache eventSearchCache;
+
     NewCategoryRequest newCategoryRequest;
     Category newCategory;
     CategoryDto categoryDto;
@@ -209,4 +209,31 @@ class CompilationServiceImplTest {
         verify(compilationRepository).findById(compilationId);
         verify(compilationRepository, never()).delete(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetCompilationsKeepsPageOrder() {
+        Compilation first = new Compilation();
+        first.setId(1L);
+        Compilation second = new Compilation();
+        second.setId(2L);
+        CompilationDto firstDto = CompilationDto.builder().id(1L).build();
+        CompilationDto secondDto = CompilationDto.builder().id(2L).build();
+
+        when(compilationRepository.findIds(eq(true), any())).thenReturn(List.of(1L, 2L));
+        when(compilationRepository.findByIdIn(List.of(1L, 2L))).thenReturn(List.of(second, first));
+        when(compilationMapper.toCompilationDto(first)).thenReturn(firstDto);
+        when(compilationMapper.toCompilationDto(second)).thenReturn(secondDto);
+
+        List<CompilationDto> result = compilationService.getCompilations(true, 0, 10);
+
+        assertEquals(List.of(firstDto, secondDto), result);
+    }
+
+    @Test
+    void testGetCompilationsEmptyPage() {
+        when(compilationRepository.findIds(any(), any())).thenReturn(List.of());
+
+        assertTrue(compilationService.getCompilations(null, 5, 10).isEmpty());
+        verify(compilationRepository, never()).findByIdIn(any());
+    }
+}
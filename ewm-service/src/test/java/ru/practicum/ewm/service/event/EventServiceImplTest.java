@@ -3,29 +3,34 @@ package ru.practicum.ewm.service.event;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 import ru.practicum.ewm.client.StatsClient;
 import ru.practicum.ewm.dto.event.*;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.NotFoundException;
 import ru.practicum.ewm.exception.NotValidField;
+import ru.practicum.ewm.exception.NotValidRequestParam;
 import ru.practicum.ewm.mapper.event.EventMapper;
 import ru.practicum.ewm.model.Category;
 import ru.practicum.ewm.model.User;
 import ru.practicum.ewm.model.event.*;
-import ru.practicum.ewm.model.reaction.Reaction;
 import ru.practicum.ewm.model.reaction.ReactionType;
 import ru.practicum.ewm.repository.CategoryRepository;
 import ru.practicum.ewm.repository.EventRepository;
+import ru.practicum.ewm.repository.ReactionOutboxRepository;
 import ru.practicum.ewm.repository.ReactionRepository;
 import ru.practicum.ewm.repository.UserRepository;
+import ru.practicum.ewm.service.leaderboard.LeaderboardServiceImpl;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -34,6 +39,12 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -55,9 +66,25 @@ class EventServiceImplTest {
     @Mock
     ReactionRepository reactionRepository;
 
+    @Mock
+    ReactionOutboxRepository reactionOutboxRepository;
+
     @Mock
     StatsClient statsClient;
 
+    @Spy
+    EventDtoCache eventDtoCache = new EventDtoCache(100, 60, new SimpleMeterRegistry());
+
+    @Spy
+    EventSearchCache eventSearchCache = new EventSearchCache(100, 60, 60, new SimpleMeterRegistry());
+
+    @Mock
+    LeaderboardServiceImpl leaderboardService;
+
+    @Spy
+    OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(
+            mock(PlatformTransactionManager.class), 3, 0, new SimpleMeterRegistry());
+
     @Mock
     HttpServletRequest request;
 
@@ -67,6 +94,7 @@ class EventServiceImplTest {
     User testUser;
     Category testCategory;
     Event testEvent;
+    EventShortView testEventView;
     NewEventRequest newEventRequest;
     DateTimeFormatter formatter;
 
@@ -95,6 +123,9 @@ class EventServiceImplTest {
         testEvent.setViews(0L);
         testEvent.setEventRating(0L);
 
+        testEventView = new EventShortView(1L, "Test Annotation", 1L, "Test Category", 0L,
+                LocalDateTime.of(2030, 1, 10, 10, 0), 1L, "Test User", false, "Test Event", 0L, 0L);
+
         newEventRequest = new NewEventRequest();
         newEventRequest.setTitle("Test Event");
         newEventRequest.setDescription("Test Description");
@@ -155,6 +186,7 @@ class EventServiceImplTest {
 
         assertNotNull(result);
         verify(eventRepository).save(testEvent);
+        verify(leaderboardService).updateEvent(testEvent);
     }
 
     @Test
@@ -188,8 +220,8 @@ class EventServiceImplTest {
     void testGetEventsByInitiatorId() {
         Pageable pageable = PageRequest.of(0, 10);
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByInitiatorId(1L, pageable)).thenReturn(List.of(testEvent));
-        when(eventMapper.toEventShortDto(testEvent)).thenReturn(new EventShortDto());
+        when(eventRepository.findShortViewsByInitiatorId(1L, pageable)).thenReturn(List.of(testEventView));
+        when(eventMapper.toEventShortDto(testEventView)).thenReturn(EventShortDto.builder().id(1L).build());
 
         List<EventShortDto> result = eventService.getEventsByInitiatorId(1L, 0, 10);
 
@@ -215,14 +247,32 @@ class EventServiceImplTest {
         criteria.setFrom(0);
         criteria.setSize(10);
 
-        when(eventRepository.findEventsByCriteria(any(), any(), any(), any(), any(), any()))
-                .thenReturn(List.of(testEvent));
+        when(eventRepository.findEvents(criteria, null)).thenReturn(List.of(testEvent));
         when(eventMapper.toEventDto(testEvent)).thenReturn(new EventDto());
 
-        List<EventDto> result = eventService.getEventsByCriteria(criteria);
+        EventPage<EventDto> result = eventService.getEventsByCriteria(criteria);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testGetEventsByCriteriaAdminWithCursor() {
+        AdminEventSearchCriteria criteria = new AdminEventSearchCriteria();
+        criteria.setFrom(5);
+        criteria.setSize(1);
+        criteria.setCursor(new EventCursor(EventSort.ID, 1L, "").encode());
+        testEvent.setId(2L);
+
+        when(eventRepository.findEvents(eq(criteria), argThat(after -> after.getId() == 1L)))
+                .thenReturn(List.of(testEvent));
+        when(eventMapper.toEventDto(testEvent)).thenReturn(new EventDto());
+
+        EventPage<EventDto> result = eventService.getEventsByCriteria(criteria);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(2L, EventCursor.decode(result.getNextCursor(), EventSort.ID).getId());
     }
 
     @Test
@@ -232,17 +282,169 @@ class EventServiceImplTest {
         criteria.setSize(10);
         criteria.setOnlyAvailable(false);
 
-        when(eventRepository.findEventsByCriteria(any(), any(), any(), any(), any(), any(), any()))
-                .thenReturn(List.of(testEvent));
-        when(eventMapper.toEventShortDto(testEvent)).thenReturn(new EventShortDto());
+        when(eventRepository.findPublishedEvents(any(), any(), any()))
+                .thenReturn(List.of(testEventView));
+        when(eventMapper.toEventShortDto(testEventView)).thenReturn(EventShortDto.builder().id(1L).build());
 
-        List<EventShortDto> result = eventService.getEventsByCriteria(criteria, request);
+        EventPage<EventShortDto> result = eventService.getEventsByCriteria(criteria, request);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
         verify(statsClient).sendHit(request);
     }
 
+    @Test
+    void testGetEventsByCriteriaPublicUsesStoredViews() {
+        PublicEventSearchCriteria criteria = new PublicEventSearchCriteria();
+        criteria.setFrom(0);
+        criteria.setSize(10);
+        criteria.setOnlyAvailable(false);
+
+        when(eventRepository.findPublishedEvents(any(), any(), any()))
+                .thenReturn(List.of(testEventView));
+        when(eventMapper.toEventShortDto(testEventView)).thenReturn(EventShortDto.builder().id(1L).views(7L).build());
+
+        EventPage<EventShortDto> result = eventService.getEventsByCriteria(criteria, request);
+
+        assertEquals(7L, result.getItems().get(0).getViews());
+        verify(statsClient, never()).getViews(any());
+    }
+
+    @Test
+    void testGetEventsByCriteriaPublicServedFromCache() {
+        when(eventRepository.findPublishedEvents(any(), any(), any()))
+                .thenReturn(List.of(testEventView));
+        when(eventMapper.toEventShortDto(testEventView)).thenReturn(EventShortDto.builder().id(1L).build());
+
+        eventService.getEventsByCriteria(PublicEventSearchCriteria.builder()
+                .categories(List.of(2L, 1L)).size(10).build(), request);
+        EventPage<EventShortDto> result = eventService.getEventsByCriteria(PublicEventSearchCriteria.builder()
+                .categories(List.of(1L, 2L, 1L)).onlyAvailable(false).size(10).build(), request);
+
+        assertEquals(1, result.getItems().size());
+        verify(eventRepository, times(1)).findPublishedEvents(any(), any(), any());
+        verify(statsClient, times(2)).sendHit(request);
+    }
+
+    @Test
+    void testUpdateAdminEventEvictsCachedSearch() {
+        AdminUpdateEventRequest updateRequest = new AdminUpdateEventRequest();
+        updateRequest.setStateAction(EventAdminUpdateState.PUBLISH_EVENT);
+
+        when(eventRepository.findPublishedEvents(any(), any(), any())).thenReturn(List.of());
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+        when(eventMapper.updateAdminEventFields(testEvent, updateRequest)).thenReturn(testEvent);
+        when(eventRepository.save(testEvent)).thenReturn(testEvent);
+
+        eventService.getEventsByCriteria(PublicEventSearchCriteria.builder().categories(List.of(1L)).size(10).build(), request);
+        eventService.getEventsByCriteria(PublicEventSearchCriteria.builder().categories(List.of(2L)).size(10).build(), request);
+        eventService.updateAdminEvent(updateRequest, 1L);
+        eventService.getEventsByCriteria(PublicEventSearchCriteria.builder().categories(List.of(1L)).size(10).build(), request);
+        eventService.getEventsByCriteria(PublicEventSearchCriteria.builder().categories(List.of(2L)).size(10).build(), request);
+
+        verify(eventRepository, times(3)).findPublishedEvents(any(), any(), any());
+        verify(eventSearchCache).evict(List.of(1L, 1L));
+    }
+
+    @Test
+    void testGetEventsByCriteriaPublicOnlyAvailableFilteredByRepository() {
+        PublicEventSearchCriteria criteria = new PublicEventSearchCriteria();
+        criteria.setFrom(0);
+        criteria.setSize(10);
+        criteria.setOnlyAvailable(true);
+
+        when(eventRepository.findPublishedEvents(any(), any(), any())).thenReturn(List.of(testEventView));
+        when(eventMapper.toEventShortDto(testEventView)).thenReturn(EventShortDto.builder().id(1L).build());
+
+        EventPage<EventShortDto> result = eventService.getEventsByCriteria(criteria, request);
+
+        assertEquals(1, result.getItems().size());
+        verify(eventRepository).findPublishedEvents(criteria, EventSort.EVENT_DATE, null);
+    }
+
+    @Test
+    void testGetEventsByCriteriaPublicWithTextSortsByRelevance() {
+        PublicEventSearchCriteria criteria = new PublicEventSearchCriteria();
+        criteria.setText("джаз");
+        criteria.setFrom(0);
+        criteria.setSize(1);
+        criteria.setOnlyAvailable(false);
+
+        when(eventRepository.findPublishedEvents(any(), eq(EventSort.RELEVANCE), any()))
+                .thenReturn(List.of(testEventView));
+        when(eventMapper.toEventShortDto(testEventView)).thenReturn(EventShortDto.builder().id(1L).build());
+
+        EventPage<EventShortDto> result = eventService.getEventsByCriteria(criteria, request);
+
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testGetEventsByCriteriaPublicReturnsNextCursor() {
+        PublicEventSearchCriteria criteria = new PublicEventSearchCriteria();
+        criteria.setFrom(0);
+        criteria.setSize(1);
+        criteria.setOnlyAvailable(false);
+
+        when(eventRepository.findPublishedEvents(any(), eq(EventSort.EVENT_DATE), any()))
+                .thenReturn(List.of(testEventView));
+        when(eventMapper.toEventShortDto(testEventView)).thenReturn(EventShortDto.builder().id(1L).build());
+
+        EventPage<EventShortDto> result = eventService.getEventsByCriteria(criteria, request);
+        EventCursor cursor = EventCursor.decode(result.getNextCursor(), EventSort.EVENT_DATE);
+
+        assertEquals(1L, cursor.getId());
+        assertEquals(LocalDateTime.of(2030, 1, 10, 10, 0), cursor.getKey());
+    }
+
+    @Test
+    void testGetEventsByCriteriaPublicCursorForOtherSort() {
+        PublicEventSearchCriteria criteria = new PublicEventSearchCriteria();
+        criteria.setSort("VIEWS");
+        criteria.setSize(10);
+        criteria.setCursor(new EventCursor(EventSort.EVENT_DATE, 1L, "2030-01-10T10:00").encode());
+
+        assertThrows(NotValidRequestParam.class, () -> eventService.getEventsByCriteria(criteria, request));
+    }
+
+    @Test
+    void testGetEventsByCriteriaPublicSortByDistance() {
+        PublicEventSearchCriteria criteria = new PublicEventSearchCriteria();
+        criteria.setSort("DISTANCE");
+        criteria.setLat(55.75);
+        criteria.setLon(37.61);
+        criteria.setRadius(5.0);
+        criteria.setSize(1);
+
+        when(eventRepository.findPublishedEvents(any(), eq(EventSort.DISTANCE), any())).thenReturn(List.of(testEventView));
+        when(eventMapper.toEventShortDto(testEventView)).thenReturn(EventShortDto.builder().id(1L).build());
+
+        EventPage<EventShortDto> result = eventService.getEventsByCriteria(criteria, request);
+
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testGetEventsByCriteriaPublicSortByDistanceWithoutLocation() {
+        PublicEventSearchCriteria criteria = new PublicEventSearchCriteria();
+        criteria.setSort("DISTANCE");
+        criteria.setSize(10);
+
+        assertThrows(NotValidRequestParam.class, () -> eventService.getEventsByCriteria(criteria, request));
+    }
+
+    @Test
+    void testGetEventsByCriteriaPublicInvalidCursor() {
+        PublicEventSearchCriteria criteria = new PublicEventSearchCriteria();
+        criteria.setSize(10);
+        criteria.setCursor("not-a-cursor");
+
+        assertThrows(NotValidRequestParam.class, () -> eventService.getEventsByCriteria(criteria, request));
+    }
+
     @Test
     void testGetEventById() {
         testEvent.setState(EventState.PUBLISHED);
@@ -255,10 +457,48 @@ class EventServiceImplTest {
         EventDto result = eventService.getEventById(1L, request);
 
         assertNotNull(result);
+        assertEquals(10L, result.getViews());
         verify(statsClient).sendHit(request);
         verify(statsClient).getHitsStats("/events/1");
     }
 
+    @Test
+    void testGetEventByIdServedFromCache() {
+        testEvent.setState(EventState.PUBLISHED);
+
+        when(request.getRequestURI()).thenReturn("/events/1");
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+        when(statsClient.getHitsStats("/events/1")).thenReturn(10L, 11L);
+        when(eventMapper.toEventDto(testEvent)).thenReturn(EventDto.builder().id(1L).build());
+
+        eventService.getEventById(1L, request);
+        EventDto result = eventService.getEventById(1L, request);
+
+        assertEquals(11L, result.getViews());
+        verify(eventRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testUpdateAdminEventEvictsCachedEvent() {
+        testEvent.setState(EventState.PUBLISHED);
+        AdminUpdateEventRequest updateRequest = new AdminUpdateEventRequest();
+        updateRequest.setStateAction(EventAdminUpdateState.PUBLISH_EVENT);
+
+        when(request.getRequestURI()).thenReturn("/events/1");
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+        when(eventMapper.toEventDto(testEvent)).thenReturn(EventDto.builder().id(1L).build());
+
+        eventService.getEventById(1L, request);
+        testEvent.setState(EventState.PENDING);
+        when(eventMapper.updateAdminEventFields(testEvent, updateRequest)).thenReturn(testEvent);
+        when(eventRepository.save(testEvent)).thenReturn(testEvent);
+        eventService.updateAdminEvent(updateRequest, 1L);
+        testEvent.setState(EventState.CANCELED);
+
+        assertThrows(NotFoundException.class, () -> eventService.getEventById(1L, request));
+        verify(eventDtoCache).evict(1L);
+    }
+
     @Test
     void testGetEventByIdEventNotPublished() {
         testEvent.setState(EventState.PENDING);
@@ -275,25 +515,18 @@ class EventServiceImplTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(userRepository.findById(2L)).thenReturn(Optional.of(likedUser));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
-        when(reactionRepository.existsReaction(1L, 2L, ReactionType.LIKE)).thenReturn(false);
-        when(reactionRepository.existsReaction(1L, 2L, ReactionType.DISLIKE)).thenReturn(false);
-        when(reactionRepository.save(any(Reaction.class))).thenReturn(new Reaction());
-        when(reactionRepository.countReactionsByEvent(1L, ReactionType.LIKE)).thenReturn(1L);
-        when(reactionRepository.countReactionsByEvent(1L, ReactionType.DISLIKE)).thenReturn(0L);
-        when(reactionRepository.countReactionsByInitiator(1L, ReactionType.LIKE)).thenReturn(1L);
-        when(reactionRepository.countReactionsByInitiator(1L, ReactionType.DISLIKE)).thenReturn(0L);
-        when(eventRepository.save(testEvent)).thenReturn(testEvent);
-        when(userRepository.save(testUser)).thenReturn(testUser);
+        when(reactionRepository.upsertReaction(1L, 1L, 2L, ReactionType.LIKE)).thenReturn(false);
         when(eventMapper.toEventDtoWithRating(testEvent)).thenReturn(new EventDtoWithRating());
 
         EventDtoWithRating result = eventService.addLike(1L, 1L, 2L);
 
         // Assert
         assertNotNull(result);
-        verify(reactionRepository).save(any(Reaction.class));
+        assertEquals(2L, testEvent.getEventRating());
+        verify(reactionOutboxRepository).add(1L, 1L, 1L, -1L);
+        verify(eventRepository, never()).save(any());
     }
 
-
     @Test
     void testAddLikeConflictEx() {
         User likedUser = new User();
@@ -302,9 +535,10 @@ class EventServiceImplTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(userRepository.findById(2L)).thenReturn(Optional.of(likedUser));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
-        when(reactionRepository.existsReaction(1L, 2L, ReactionType.LIKE)).thenReturn(true);
+        when(reactionRepository.upsertReaction(1L, 1L, 2L, ReactionType.LIKE)).thenReturn(null);
 
         assertThrows(ConflictException.class, () -> eventService.addLike(1L, 1L, 2L));
+        verify(reactionOutboxRepository, never()).add(any(), any(), anyLong(), anyLong());
     }
 
     @Test
@@ -315,21 +549,14 @@ class EventServiceImplTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(userRepository.findById(2L)).thenReturn(Optional.of(dislikedUser));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
-        when(reactionRepository.existsReaction(1L, 2L, ReactionType.DISLIKE)).thenReturn(false);
-        when(reactionRepository.existsReaction(1L, 2L, ReactionType.LIKE)).thenReturn(false);
-        when(reactionRepository.save(any(Reaction.class))).thenReturn(new Reaction());
-        when(reactionRepository.countReactionsByEvent(1L, ReactionType.LIKE)).thenReturn(0L);
-        when(reactionRepository.countReactionsByEvent(1L, ReactionType.DISLIKE)).thenReturn(1L);
-        when(reactionRepository.countReactionsByInitiator(1L, ReactionType.LIKE)).thenReturn(0L);
-        when(reactionRepository.countReactionsByInitiator(1L, ReactionType.DISLIKE)).thenReturn(1L);
-        when(eventRepository.save(testEvent)).thenReturn(testEvent);
-        when(userRepository.save(testUser)).thenReturn(testUser);
+        when(reactionRepository.upsertReaction(1L, 1L, 2L, ReactionType.DISLIKE)).thenReturn(true);
         when(eventMapper.toEventDtoWithRating(testEvent)).thenReturn(new EventDtoWithRating());
 
         EventDtoWithRating result = eventService.addDislike(1L, 1L, 2L);
 
         assertNotNull(result);
-        verify(reactionRepository).save(any(Reaction.class));
+        assertEquals(-1L, testEvent.getEventRating());
+        verify(reactionOutboxRepository).add(1L, 1L, 0L, 1L);
     }
 
     @Test
@@ -340,18 +567,26 @@ class EventServiceImplTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(userRepository.findById(2L)).thenReturn(Optional.of(likedUser));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
-        when(reactionRepository.existsReaction(1L, 2L, ReactionType.LIKE)).thenReturn(true);
-        when(reactionRepository.countReactionsByEvent(1L, ReactionType.LIKE)).thenReturn(0L);
-        when(reactionRepository.countReactionsByEvent(1L, ReactionType.DISLIKE)).thenReturn(0L);
-        when(reactionRepository.countReactionsByInitiator(1L, ReactionType.LIKE)).thenReturn(0L);
-        when(reactionRepository.countReactionsByInitiator(1L, ReactionType.DISLIKE)).thenReturn(0L);
-        when(eventRepository.save(testEvent)).thenReturn(testEvent);
-        when(userRepository.save(testUser)).thenReturn(testUser);
+        when(reactionRepository.deleteReaction(1L, 2L, ReactionType.LIKE)).thenReturn(1);
         when(eventMapper.toEventDtoWithRating(testEvent)).thenReturn(new EventDtoWithRating());
 
         EventDtoWithRating result = eventService.removeLike(1L, 1L, 2L);
 
         assertNotNull(result);
-        verify(reactionRepository).deleteByEventIdAndLikedUserId(1L, 2L);
+        verify(reactionOutboxRepository).add(1L, 1L, -1L, 0L);
+    }
+
+    @Test
+    void testRemoveLikeNotFoundEx() {
+        User likedUser = new User();
+        likedUser.setId(2L);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(likedUser));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+        when(reactionRepository.deleteReaction(1L, 2L, ReactionType.LIKE)).thenReturn(0);
+
+        assertThrows(NotFoundException.class, () -> eventService.removeLike(1L, 1L, 2L));
+        verify(reactionOutboxRepository, never()).add(any(), any(), anyLong(), anyLong());
     }
 }
\ No newline at end of file
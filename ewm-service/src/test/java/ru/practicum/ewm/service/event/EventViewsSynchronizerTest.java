@@ -0,0 +1,72 @@
+package ru.practicum.ewm.service.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.ewm.client.StatsClient;
+import ru.practicum.ewm.repository.EventViewsRepository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class EventViewsSynchronizerTest {
+    @Mock
+    EventViewsRepository eventViewsRepository;
+
+    @Mock
+    StatsClient statsClient;
+
+    SimpleMeterRegistry meterRegistry;
+    EventViewsSynchronizer synchronizer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        synchronizer = new EventViewsSynchronizer(eventViewsRepository, statsClient, 2, meterRegistry);
+    }
+
+    @Test
+    void testSyncWritesOnlyChangedViewsByChunks() {
+        when(eventViewsRepository.findPublishedViews(0, 2)).thenReturn(linked(1L, 5L, 2L, 0L));
+        when(eventViewsRepository.findPublishedViews(2, 2)).thenReturn(linked(3L, 1L));
+        when(statsClient.getViews(List.of("/events/1", "/events/2"))).thenReturn(Map.of("/events/1", 5L, "/events/2", 4L));
+        when(statsClient.getViews(List.of("/events/3"))).thenReturn(Map.of("/events/3", 2L));
+
+        synchronizer.sync();
+
+        verify(eventViewsRepository).updateViews(Map.of(2L, 4L));
+        verify(eventViewsRepository).updateViews(Map.of(3L, 2L));
+        assertEquals(2.0, meterRegistry.get("events.views.sync.updated").counter().count());
+    }
+
+    @Test
+    void testSyncStopsWhenStatsUnavailable() {
+        when(eventViewsRepository.findPublishedViews(0, 2)).thenReturn(linked(1L, 5L, 2L, 0L));
+        when(statsClient.getViews(any())).thenReturn(Map.of());
+
+        synchronizer.sync();
+
+        verify(eventViewsRepository, never()).updateViews(any());
+        assertEquals(0.0, meterRegistry.get("events.views.sync.updated").counter().count());
+    }
+
+    private static Map<Long, Long> linked(Long... idsAndViews) {
+        Map<Long, Long> views = new LinkedHashMap<>();
+        for (int i = 0; i < idsAndViews.length; i += 2) {
+            views.put(idsAndViews[i], idsAndViews[i + 1]);
+        }
+        return views;
+    }
+}
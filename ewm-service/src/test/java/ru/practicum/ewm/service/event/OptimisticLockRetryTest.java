@@ -0,0 +1,80 @@
+package ru.practicum.ewm.service.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.model.event.Event;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class OptimisticLockRetryTest {
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    SimpleMeterRegistry meterRegistry;
+    OptimisticLockRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        retry = new OptimisticLockRetry(transactionManager, 3, 0, meterRegistry);
+    }
+
+    @Test
+    void testExecuteRetriesAfterConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute("updateAdminEvent", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException(Event.class, 1L);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(2, attempts.get());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+        assertEquals(1.0, meterRegistry.get("optimistic.lock.conflicts").tag("operation", "updateAdminEvent").counter().count());
+    }
+
+    @Test
+    void testExecuteThrowsConflictWhenAttemptsExhausted() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ConflictException.class, () -> retry.execute("saveRequest", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Event.class, 1L);
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(3.0, meterRegistry.get("optimistic.lock.conflicts").tag("operation", "saveRequest").counter().count());
+        assertEquals(1.0, meterRegistry.get("optimistic.lock.exhausted").tag("operation", "saveRequest").counter().count());
+    }
+
+    @Test
+    void testExecuteDoesNotRetryOtherErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ConflictException.class, () -> retry.execute("saveRequest", () -> {
+            attempts.incrementAndGet();
+            throw new ConflictException("Достигнут лимит участников");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+}
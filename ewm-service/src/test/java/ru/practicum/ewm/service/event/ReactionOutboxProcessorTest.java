@@ -0,0 +1,87 @@
+package ru.practicum.ewm.service.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.ewm.model.reaction.ReactionDelta;
+import ru.practicum.ewm.model.reaction.UserReactionDelta;
+import ru.practicum.ewm.repository.ReactionOutboxRepository;
+import ru.practicum.ewm.service.leaderboard.LeaderboardServiceImpl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ReactionOutboxProcessorTest {
+    @Mock
+    ReactionOutboxRepository reactionOutboxRepository;
+
+    @Mock
+    EventDtoCache eventDtoCache;
+
+    @Mock
+    EventSearchCache eventSearchCache;
+
+    @Mock
+    LeaderboardServiceImpl leaderboardService;
+
+    SimpleMeterRegistry meterRegistry;
+    ReactionOutboxProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        processor = new ReactionOutboxProcessor(reactionOutboxRepository, eventDtoCache, eventSearchCache, leaderboardService,
+                10, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testProcessCoalescesDeltasByEventAndUser() {
+        when(reactionOutboxRepository.poll(10)).thenReturn(List.of(
+                new ReactionDelta(2L, 7L, 1L, 1, 0),
+                new ReactionDelta(1L, 5L, 1L, 1, 0),
+                new ReactionDelta(2L, 7L, 1L, 1, -1),
+                new ReactionDelta(3L, 5L, 4L, 1, 0),
+                new ReactionDelta(3L, 5L, 4L, -1, 0)));
+
+        assertEquals(5, processor.process());
+
+        ArgumentCaptor<Collection<ReactionDelta>> events = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<UserReactionDelta>> users = ArgumentCaptor.forClass(Collection.class);
+        verify(reactionOutboxRepository).applyToEvents(events.capture());
+        verify(reactionOutboxRepository).applyToUsers(users.capture());
+
+        assertEquals(List.of(new ReactionDelta(1L, 5L, 1L, 1, 0), new ReactionDelta(2L, 7L, 1L, 2, -1)),
+                List.copyOf(events.getValue()));
+        assertEquals(List.of(new UserReactionDelta(1L, 3, -1)), List.copyOf(users.getValue()));
+        verify(eventDtoCache).evict(1L);
+        verify(eventDtoCache).evict(2L);
+        verify(eventSearchCache).evict(Set.of(5L, 7L));
+        verify(leaderboardService).refreshEvents(Set.of(1L, 2L));
+        verify(leaderboardService).refreshUsers(Set.of(1L));
+        assertEquals(5.0, meterRegistry.get("ratings.outbox.applied").counter().count());
+    }
+
+    @Test
+    void testProcessEmptyOutbox() {
+        when(reactionOutboxRepository.poll(10)).thenReturn(List.of());
+
+        assertEquals(0, processor.process());
+
+        verify(reactionOutboxRepository, never()).applyToEvents(any());
+        verify(reactionOutboxRepository, never()).applyToUsers(any());
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.ewm.service.leaderboard;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.ewm.dto.event.EventRatingDto;
+import ru.practicum.ewm.dto.user.UserRatingDto;
+import ru.practicum.ewm.exception.NotValidRequestParam;
+import ru.practicum.ewm.model.Category;
+import ru.practicum.ewm.model.event.Event;
+import ru.practicum.ewm.model.event.EventState;
+import ru.practicum.ewm.model.leaderboard.LeaderboardEntry;
+import ru.practicum.ewm.repository.LeaderboardRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class LeaderboardServiceImplTest {
+    @Mock
+    LeaderboardRepository leaderboardRepository;
+
+    @InjectMocks
+    LeaderboardServiceImpl leaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        when(leaderboardRepository.findEvents()).thenReturn(List.of(
+                new LeaderboardEntry(1L, 10L, "Концерт", 5),
+                new LeaderboardEntry(2L, 10L, "Выставка", 7),
+                new LeaderboardEntry(3L, 20L, "Лекция", 5)));
+        when(leaderboardRepository.findUsers()).thenReturn(List.of(
+                new LeaderboardEntry(1L, null, "Иван", 3),
+                new LeaderboardEntry(2L, null, "Мария", 9)));
+
+        leaderboardService.rebuild();
+    }
+
+    @Test
+    void testGetTopEventsOrderedByRatingThenId() {
+        assertEquals(List.of(2L, 1L, 3L), ids(leaderboardService.getTopEvents(null, 10)));
+        assertEquals(List.of(2L, 1L), ids(leaderboardService.getTopEvents(10L, 10)));
+        assertEquals(List.of(2L), ids(leaderboardService.getTopEvents(null, 1)));
+        assertEquals(List.of(), leaderboardService.getTopEvents(30L, 10));
+    }
+
+    @Test
+    void testRefreshEventsMovesAndRemovesEvents() {
+        when(leaderboardRepository.findEvents(List.of(1L, 2L)))
+                .thenReturn(List.of(new LeaderboardEntry(1L, 20L, "Концерт", 8)));
+
+        leaderboardService.refreshEvents(List.of(1L, 2L));
+
+        assertEquals(List.of(1L, 3L), ids(leaderboardService.getTopEvents(null, 10)));
+        assertEquals(List.of(), leaderboardService.getTopEvents(10L, 10));
+        assertEquals(List.of(1L, 3L), ids(leaderboardService.getTopEvents(20L, 10)));
+        assertEquals(8L, leaderboardService.getTopEvents(null, 1).get(0).getEventRating());
+    }
+
+    @Test
+    void testUpdateEventAddsPublishedEvent() {
+        Event event = new Event();
+        event.setId(4L);
+        event.setState(EventState.PUBLISHED);
+        event.setCategory(new Category(20L, "Лекции"));
+        event.setTitle("Семинар");
+        event.setEventRating(6L);
+
+        leaderboardService.updateEvent(event);
+
+        assertEquals(List.of(4L, 3L), ids(leaderboardService.getTopEvents(20L, 10)));
+    }
+
+    @Test
+    void testGetTopUsers() {
+        List<UserRatingDto> users = leaderboardService.getTopUsers(10);
+
+        assertEquals(List.of(2L, 1L), users.stream().map(UserRatingDto::getId).toList());
+        assertEquals("Мария", users.get(0).getName());
+
+        leaderboardService.removeUser(2L);
+
+        assertEquals(1, leaderboardService.getTopUsers(10).size());
+    }
+
+    @Test
+    void testGetTopEventsNotValidSize() {
+        assertThrows(NotValidRequestParam.class, () -> leaderboardService.getTopEvents(null, 0));
+        assertThrows(NotValidRequestParam.class, () -> leaderboardService.getTopUsers(101));
+    }
+
+    private static List<Long> ids(List<EventRatingDto> events) {
+        return events.stream()
+                .map(EventRatingDto::getId)
+                .toList();
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.ewm.service.request;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,13 +8,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 import ru.practicum.ewm.dto.request.EventRequestStatusUpdateRequest;
 import ru.practicum.ewm.dto.request.EventRequestStatusUpdateResult;
 import ru.practicum.ewm.dto.request.RequestDto;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.NotFoundException;
 import ru.practicum.ewm.mapper.request.RequestMapper;
+import ru.practicum.ewm.model.Category;
 import ru.practicum.ewm.model.User;
 import ru.practicum.ewm.model.event.Event;
 import ru.practicum.ewm.model.event.EventState;
@@ -22,6 +26,9 @@ import ru.practicum.ewm.model.request.RequestStatus;
 import ru.practicum.ewm.repository.EventRepository;
 import ru.practicum.ewm.repository.RequestRepository;
 import ru.practicum.ewm.repository.UserRepository;
+import ru.practicum.ewm.service.event.EventDtoCache;
+import ru.practicum.ewm.service.event.EventSearchCache;
+import ru.practicum.ewm.service.event.OptimisticLockRetry;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -31,6 +38,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -49,6 +57,16 @@ class RequestServiceImplTest {
     @Mock
     EventRepository eventRepository;
 
+    @Mock
+    EventDtoCache eventDtoCache;
+
+    @Mock
+    EventSearchCache eventSearchCache;
+
+    @Spy
+    OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(
+            mock(PlatformTransactionManager.class), 3, 0, new SimpleMeterRegistry());
+
     @InjectMocks
     RequestServiceImpl requestService;
 
@@ -71,10 +89,14 @@ class RequestServiceImplTest {
         testInitiator.setName("Initiator");
         testInitiator.setEmail("initiator@email.com");
 
+        Category testCategory = new Category();
+        testCategory.setId(1L);
+
         testEvent = new Event();
         testEvent.setId(1L);
         testEvent.setTitle("Test Event");
         testEvent.setInitiator(testInitiator);
+        testEvent.setCategory(testCategory);
         testEvent.setState(EventState.PUBLISHED);
         testEvent.setParticipantLimit(10);
         testEvent.setConfirmedRequests(5L);
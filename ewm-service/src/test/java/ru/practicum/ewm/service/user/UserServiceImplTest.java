@@ -14,6 +14,7 @@ import ru.practicum.ewm.exception.NotFoundException;
 import ru.practicum.ewm.mapper.user.UserMapper;
 import ru.practicum.ewm.model.User;
 import ru.practicum.ewm.repository.UserRepository;
+import ru.practicum.ewm.service.leaderboard.LeaderboardServiceImpl;
 import org.springframework.data.domain.PageRequest;
 
 import java.util.Arrays;
@@ -36,6 +37,9 @@ class UserServiceImplTest {
     @Mock
     UserMapper userMapper;
 
+    @Mock
+    LeaderboardServiceImpl leaderboardService;
+
     NewUserRequest newUserRequest;
     User newUser;
     UserDto userDto;
@@ -64,6 +68,7 @@ class UserServiceImplTest {
         verify(userMapper).toUser(newUserRequest);
         verify(userRepository).save(newUser);
         verify(userMapper).toUserDto(newUser);
+        verify(leaderboardService).updateUser(newUser);
     }
 
     @Test
@@ -99,6 +104,7 @@ class UserServiceImplTest {
         userService.removeUser(1L);
 
         verify(userRepository).delete(newUser);
+        verify(leaderboardService).removeUser(1L);
     }
 
     @Test
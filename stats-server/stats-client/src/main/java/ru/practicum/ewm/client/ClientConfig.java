@@ -5,19 +5,38 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 public class ClientConfig {
     @Value("${stats-service.url}")
     private String baseUrl;
 
+    @Value("${stats-service.hits.async:false}")
+    private boolean asyncHits;
+
+    @Value("${stats-service.hits.queue-capacity:10000}")
+    private int hitsQueueCapacity;
+
+    @Value("${stats-service.hits.batch-size:100}")
+    private int hitsBatchSize;
+
+    @Value("${stats-service.hits.flush-interval-ms:1000}")
+    private long hitsFlushIntervalMs;
+
     @Bean
     public RestTemplate restTemplate() {
         return new RestTemplate();
     }
 
     @Bean
-    public StatsClient statsClient(RestTemplate restTemplate) {
-        return new StatsClient(restTemplate, baseUrl);
+    public HitBuffer hitBuffer() {
+        return new HitBuffer(hitsQueueCapacity, hitsBatchSize, Duration.ofMillis(hitsFlushIntervalMs));
+    }
+
+    @Bean
+    public StatsClient statsClient(RestTemplate restTemplate, HitBuffer hitBuffer) {
+        return new StatsClient(restTemplate, baseUrl, asyncHits ? hitBuffer : null);
     }
 
     public String getBaseUrl() {
@@ -0,0 +1,160 @@
+package ru.practicum.ewm.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.ewm.NewHitRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Ограниченная очередь хитов, которую фоновый поток отправляет в stats-service пачками.
+ * Пачка уходит, когда набралось {@code batchSize} хитов или истек {@code flushInterval}.
+ * Если очередь заполнена или буфер уже закрыт, новый хит отбрасывается и учитывается в счетчике {@code dropped}.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitBuffer implements MeterBinder, AutoCloseable {
+    final BlockingQueue<NewHitRequest> queue;
+    final int batchSize;
+    final Duration flushInterval;
+    final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    final AtomicLong shipped = new AtomicLong();
+    final AtomicLong dropped = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    volatile ScheduledExecutorService executor;
+    volatile boolean closed;
+    Consumer<List<NewHitRequest>> shipper;
+
+    public HitBuffer(int capacity, int batchSize, Duration flushInterval) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+    }
+
+    public synchronized void start(Consumer<List<NewHitRequest>> shipper) {
+        if (executor != null) {
+            throw new IllegalStateException("Буфер хитов уже запущен");
+        }
+
+        this.shipper = shipper;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-hit-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public boolean offer(NewHitRequest hit) {
+        if (closed || !queue.offer(hit)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            requestFlush();
+        }
+
+        return true;
+    }
+
+    private void requestFlush() {
+        ScheduledExecutorService current = executor;
+        if (current == null) {
+            // Еще не запущен или уже закрыт: очередь разберет плановый сброс или close()
+            flushRequested.set(false);
+            return;
+        }
+
+        try {
+            current.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            // Исполнитель остановлен в close(), хит остается в очереди до финального сброса
+            flushRequested.set(false);
+        }
+    }
+
+    public long getShipped() {
+        return shipped.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("stats.client.hits.queued", this, HitBuffer::getQueued).register(registry);
+        FunctionCounter.builder("stats.client.hits.shipped", this, HitBuffer::getShipped).register(registry);
+        FunctionCounter.builder("stats.client.hits.dropped", this, HitBuffer::getDropped).register(registry);
+        FunctionCounter.builder("stats.client.hits.failed", this, HitBuffer::getFailed).register(registry);
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(flushInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+        executor = null;
+    }
+
+    void flush() {
+        flushRequested.set(false);
+
+        List<NewHitRequest> batch = new ArrayList<>(batchSize);
+        do {
+            batch.clear();
+            queue.drainTo(batch, batchSize);
+
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                shipper.accept(batch);
+                shipped.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                failed.addAndGet(batch.size());
+                log.warn("Не удалось отправить {} хитов в сервис статистики: {}", batch.size(), e.getMessage());
+                return;
+            }
+        } while (batch.size() == batchSize);
+    }
+}
@@ -1,44 +1,132 @@
 package ru.practicum.ewm.client;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 import ru.practicum.ewm.HitDto;
+import ru.practicum.ewm.HitStatsDto;
 import ru.practicum.ewm.NewHitRequest;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Component
+@Slf4j
 @FieldDefaults(level = AccessLevel.PRIVATE)
-@AllArgsConstructor
 public class StatsClient {
     final RestTemplate restTemplate;
-    String baseUrl;
+    final String baseUrl;
+    final HitBuffer hitBuffer;
+    static final ObjectMapper objectMapper = new ObjectMapper();
     static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    public StatsClient(RestTemplate restTemplate, String baseUrl) {
+        this(restTemplate, baseUrl, null);
+    }
+
+    public StatsClient(RestTemplate restTemplate, String baseUrl, HitBuffer hitBuffer) {
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl;
+        this.hitBuffer = hitBuffer;
+
+        if (hitBuffer != null) {
+            hitBuffer.start(this::sendHits);
+        }
+    }
+
     public void sendHit(HttpServletRequest request) {
         String uri = request.getRequestURI();
         String ip = request.getRemoteAddr();
 
         NewHitRequest hitRequest = createHitRequest(ip, uri);
-        HitDto response = restTemplate.postForObject(
+
+        if (hitBuffer != null) {
+            hitBuffer.offer(hitRequest);
+            return;
+        }
+
+        restTemplate.postForObject(
                 baseUrl + "/hit",
                 hitRequest,
                 HitDto.class
         );
     }
 
+    public Long sendHits(List<NewHitRequest> hits) {
+        return restTemplate.postForObject(baseUrl + "/hit/batch", hits, Long.class);
+    }
+
     public Long getHitsStats(String uri) {
         String url = String.format("%s/stats/uri?uri=%s", baseUrl, uri);
         ResponseEntity<Long> response = restTemplate.getForEntity(url, Long.class);
         return response.getBody();
     }
 
+    /**
+     * Просмотры (уникальные IP) для набора uri одним запросом. Если сервис статистики недоступен,
+     * возвращает пустую карту: списки событий отдаются и без просмотров.
+     */
+    public Map<String, Long> getViews(Collection<String> uris) {
+        if (uris.isEmpty()) {
+            return Map.of();
+        }
+
+        try {
+            Map<String, Long> views = restTemplate.exchange(baseUrl + "/stats/views", HttpMethod.POST,
+                    new HttpEntity<>(uris), new ParameterizedTypeReference<Map<String, Long>>() {
+                    }).getBody();
+            return views != null ? views : Map.of();
+        } catch (RestClientException e) {
+            log.warn("Не удалось получить просмотры из сервиса статистики: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * Читает потоковый отчет /stats/stream по одному элементу, не собирая весь ответ в памяти.
+     */
+    public void streamHitsStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                Consumer<HitStatsDto> consumer) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(baseUrl + "/stats/stream")
+                .queryParam("start", start.format(formatter))
+                .queryParam("end", end.format(formatter))
+                .queryParam("unique", unique);
+
+        if (uris != null && !uris.isEmpty()) {
+            builder.queryParam("uris", uris.toArray());
+        }
+
+        restTemplate.execute(builder.encode().build().toUri(), HttpMethod.GET, null, response -> {
+            try (JsonParser parser = objectMapper.getFactory().createParser(response.getBody())) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IllegalStateException("Сервис статистики вернул не массив");
+                }
+
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    consumer.accept(parser.readValueAs(HitStatsDto.class));
+                }
+            }
+
+            return null;
+        });
+    }
+
     private NewHitRequest createHitRequest(String ip, String uri) {
         return NewHitRequest.builder()
                 .app("ewm-main-service")
@@ -48,6 +136,3 @@ public class StatsClient {
                 .build();
     }
 }
-
-
-
@@ -0,0 +1,166 @@
+package ru.practicum.ewm.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.NewHitRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HitBufferTest {
+    static final Duration NEVER = Duration.ofHours(1);
+    static final long TIMEOUT_MS = 5000;
+
+    final BlockingQueue<List<NewHitRequest>> batches = new LinkedBlockingQueue<>();
+    HitBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
+    @Test
+    void testBatchIsShippedWhenSizeIsReached() throws InterruptedException {
+        buffer = new HitBuffer(100, 3, NEVER);
+        buffer.start(this::ship);
+
+        assertTrue(buffer.offer(hit("/events/1")));
+        assertTrue(buffer.offer(hit("/events/2")));
+        assertTrue(buffer.offer(hit("/events/3")));
+
+        List<NewHitRequest> batch = batches.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(batch);
+        assertEquals(List.of("/events/1", "/events/2", "/events/3"), uris(batch));
+        await(() -> buffer.getShipped() == 3);
+        assertEquals(0, buffer.getQueued());
+    }
+
+    @Test
+    void testBatchIsShippedWhenIntervalElapses() throws InterruptedException {
+        buffer = new HitBuffer(100, 100, Duration.ofMillis(50));
+        buffer.start(this::ship);
+
+        buffer.offer(hit("/events/1"));
+        buffer.offer(hit("/events/2"));
+
+        List<NewHitRequest> batch = batches.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(batch);
+        assertEquals(List.of("/events/1", "/events/2"), uris(batch));
+    }
+
+    @Test
+    void testHitIsDroppedWhenQueueIsFull() {
+        buffer = new HitBuffer(2, 100, NEVER);
+        buffer.start(this::ship);
+
+        assertTrue(buffer.offer(hit("/events/1")));
+        assertTrue(buffer.offer(hit("/events/2")));
+        assertFalse(buffer.offer(hit("/events/3")));
+
+        assertEquals(1, buffer.getDropped());
+        assertEquals(2, buffer.getQueued());
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void testHitIsDroppedAfterClose() {
+        buffer = new HitBuffer(100, 1, NEVER);
+        buffer.start(this::ship);
+        buffer.close();
+
+        assertFalse(buffer.offer(hit("/events/1")));
+
+        assertEquals(1, buffer.getDropped());
+        assertEquals(0, buffer.getQueued());
+        assertEquals(0, buffer.getShipped());
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void testCloseShipsEverythingBuffered() {
+        buffer = new HitBuffer(100, 100, NEVER);
+        buffer.start(this::ship);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(hit("/events/" + i));
+        }
+
+        buffer.close();
+
+        List<NewHitRequest> shipped = new ArrayList<>();
+        batches.forEach(shipped::addAll);
+        assertEquals(List.of("/events/0", "/events/1", "/events/2", "/events/3", "/events/4"), uris(shipped));
+        assertEquals(5, buffer.getShipped());
+        assertEquals(0, buffer.getQueued());
+    }
+
+    @Test
+    void testFailedShipmentIsCounted() throws InterruptedException {
+        buffer = new HitBuffer(100, 2, NEVER);
+        buffer.start(batch -> {
+            throw new IllegalStateException("stats-service недоступен");
+        });
+
+        buffer.offer(hit("/events/1"));
+        buffer.offer(hit("/events/2"));
+
+        await(() -> buffer.getFailed() == 2);
+        assertEquals(0, buffer.getShipped());
+        assertEquals(0, buffer.getQueued());
+    }
+
+    @Test
+    void testTotalsAreBoundAsCounters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        buffer = new HitBuffer(1, 100, NEVER);
+        buffer.bindTo(registry);
+        buffer.start(this::ship);
+
+        buffer.offer(hit("/events/1"));
+        buffer.offer(hit("/events/2"));
+        buffer.close();
+
+        assertEquals(1.0, registry.get("stats.client.hits.shipped").functionCounter().count());
+        assertEquals(1.0, registry.get("stats.client.hits.dropped").functionCounter().count());
+        assertEquals(0.0, registry.get("stats.client.hits.failed").functionCounter().count());
+        assertEquals(0.0, registry.get("stats.client.hits.queued").gauge().value());
+    }
+
+    private void ship(List<NewHitRequest> batch) {
+        batches.add(List.copyOf(batch));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Условие не выполнилось за " + TIMEOUT_MS + " мс");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<String> uris(List<NewHitRequest> hits) {
+        return hits.stream()
+                .map(NewHitRequest::getUri)
+                .toList();
+    }
+
+    private static NewHitRequest hit(String uri) {
+        return NewHitRequest.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip("127.0.0.1")
+                .timestamp("2024-05-01 12:00:00")
+                .build();
+    }
+}
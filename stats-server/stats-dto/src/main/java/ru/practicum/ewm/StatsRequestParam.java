@@ -15,4 +15,6 @@ public class StatsRequestParam {
     String end;
     List<String> uris;
     Boolean unique;
+    Integer limit;
+    Boolean exact;
 }
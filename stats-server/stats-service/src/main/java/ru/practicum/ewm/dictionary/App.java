@@ -0,0 +1,19 @@
+package ru.practicum.ewm.dictionary;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity
+@Table(name = "apps")
+public class App {
+    @Id
+    Integer id;
+
+    String name;
+}
@@ -0,0 +1,49 @@
+package ru.practicum.ewm.dictionary;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Словари приложений и uri: строка хранится один раз, хиты ссылаются на нее по int id.
+ */
+@Repository
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@AllArgsConstructor
+public class DictionaryRepository {
+    public static final String APPS = "apps";
+    public static final String URIS = "uris";
+
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Добавляет отсутствующие имена и возвращает id всех переданных имен.
+     * Вызывается вне транзакции записи хитов, чтобы id новых строк не пропали при ее откате.
+     */
+    public Map<String, Integer> findOrCreate(String table, Collection<String> names) {
+        SqlParameterSource[] batch = names.stream()
+                .sorted()
+                .map(name -> new MapSqlParameterSource("name", name))
+                .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate("INSERT INTO " + table + " (name) VALUES (:name) ON CONFLICT (name) DO NOTHING",
+                batch);
+
+        Map<String, Integer> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM " + table + " WHERE name IN (:names)",
+                new MapSqlParameterSource("names", names),
+                rs -> {
+                    ids.put(rs.getString("name"), rs.getInt("id"));
+                });
+
+        return ids;
+    }
+}
@@ -3,7 +3,10 @@ package ru.practicum.ewm.hit;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
+import java.net.InetAddress;
 import java.time.LocalDateTime;
 
 @Builder
@@ -16,14 +19,24 @@ import java.time.LocalDateTime;
 @Table(name = "hits")
 public class Hit {
     @Id
-    @GeneratedValue(strategy =  GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hits_seq")
+    @SequenceGenerator(name = "hits_seq", sequenceName = "hits_id_seq", allocationSize = 50)
     Long id;
 
+    @Transient
     String app;
 
+    @Transient
     String uri;
 
-    String ip;
+    @Column(name = "app_id")
+    Integer appId;
+
+    @Column(name = "uri_id")
+    Integer uriId;
+
+    @JdbcTypeCode(SqlTypes.INET)
+    InetAddress ip;
 
     @Column(name = "create_date")
     LocalDateTime timestamp;
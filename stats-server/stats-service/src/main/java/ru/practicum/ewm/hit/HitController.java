@@ -1,18 +1,26 @@
 package ru.practicum.ewm.hit;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.ewm.HitDto;
 import ru.practicum.ewm.HitStatsDto;
 import ru.practicum.ewm.NewHitRequest;
 import ru.practicum.ewm.StatsRequestParam;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
@@ -20,13 +28,24 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class HitController {
     final HitServiceImpl hitService;
+    final ObjectMapper objectMapper;
 
-    @PostMapping
-    @RequestMapping("/hit")
-    @ResponseStatus(HttpStatus.CREATED)
-    public HitDto create(@RequestBody @Valid NewHitRequest request) {
+    /**
+     * Возвращает 201 с сохраненным хитом или 202 без тела, если хит принят в журнал и будет загружен позже.
+     */
+    @PostMapping("/hit")
+    public ResponseEntity<HitDto> create(@RequestBody @Valid NewHitRequest request) {
         log.info("Запрос на добавление статистики - {}", request);
-        return hitService.saveHit(request);
+        return hitService.saveHit(request)
+                .map(hit -> ResponseEntity.status(HttpStatus.CREATED).body(hit))
+                .orElseGet(() -> ResponseEntity.accepted().build());
+    }
+
+    @PostMapping("/hit/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Long createBatch(@RequestBody List<@Valid NewHitRequest> requests) {
+        log.info("Запрос на добавление пачки статистики из {} хитов", requests.size());
+        return hitService.saveHits(requests);
     }
 
     @GetMapping
@@ -35,21 +54,67 @@ public class HitController {
     public List<HitStatsDto> getHitsStats(@RequestParam(required = true) String start,
                                           @RequestParam(required = true) String end,
                                           @RequestParam(required = false) List<String> uris,
-                                          @RequestParam(required = false, defaultValue = "false") Boolean unique) {
-        StatsRequestParam statsRequestParam = StatsRequestParam.builder()
+                                          @RequestParam(required = false, defaultValue = "false") Boolean unique,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false, defaultValue = "false") Boolean exact) {
+        return hitService.getHitsStats(toStatsRequestParam(start, end, uris, unique, limit, exact));
+    }
+
+    @GetMapping("/stats/stream")
+    public ResponseEntity<StreamingResponseBody> streamHitsStats(@RequestParam String start,
+                                                                 @RequestParam String end,
+                                                                 @RequestParam(required = false) List<String> uris,
+                                                                 @RequestParam(required = false, defaultValue = "false") Boolean unique) {
+        log.info("Запрос на потоковую выгрузку статистики с {} по {}", start, end);
+        StatsRequestParam statsRequestParam = toStatsRequestParam(start, end, uris, unique, null, true);
+        hitService.checkStatsRequest(statsRequestParam);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                hitService.streamHitsStats(statsRequestParam, stats -> writeStats(generator, stats));
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @GetMapping
+    @RequestMapping("/stats/uri")
+    @ResponseStatus(HttpStatus.OK)
+    public Long getHitsStats(@RequestParam String uri,
+                             @RequestParam(required = false, defaultValue = "false") Boolean exact) {
+        return hitService.countViewsByIp(uri, exact);
+    }
+
+    @PostMapping("/stats/views")
+    @ResponseStatus(HttpStatus.OK)
+    public Map<String, Long> getViews(@RequestBody List<String> uris,
+                                      @RequestParam(required = false, defaultValue = "false") Boolean exact) {
+        log.info("Запрос просмотров для {} uri", uris.size());
+        return hitService.countViewsByIp(uris, exact);
+    }
+
+    private StatsRequestParam toStatsRequestParam(String start, String end, List<String> uris, Boolean unique,
+                                                  Integer limit, Boolean exact) {
+        return StatsRequestParam.builder()
                 .start(start)
                 .end(end)
                 .uris(uris)
                 .unique(unique)
+                .limit(limit)
+                .exact(exact)
                 .build();
-
-        return hitService.getHitsStats(statsRequestParam);
     }
 
-    @GetMapping
-    @RequestMapping("/stats/uri")
-    @ResponseStatus(HttpStatus.OK)
-    public Long getHitsStats(@RequestParam String uri) {
-        return hitService.countViewsByIp(uri);
+    private void writeStats(JsonGenerator generator, HitStatsDto stats) {
+        try {
+            generator.writeObject(stats);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
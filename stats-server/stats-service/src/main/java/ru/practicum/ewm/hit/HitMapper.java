@@ -1,23 +1,43 @@
 package ru.practicum.ewm.hit;
 
-import lombok.NoArgsConstructor;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
 import org.springframework.stereotype.Component;
 import ru.practicum.ewm.HitDto;
 import ru.practicum.ewm.NewHitRequest;
+import ru.practicum.ewm.dictionary.DictionaryRepository;
+import ru.practicum.ewm.exception.BadRequestException;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Component
-@NoArgsConstructor
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
 public class HitMapper {
+    static final Pattern IPV4 = Pattern.compile("(25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)(\\.(25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)){3}");
+    static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    final DictionaryRepository dictionaryRepository;
+    final Map<String, Integer> appIds = new ConcurrentHashMap<>();
+    final Map<String, Integer> uriIds = new ConcurrentHashMap<>();
     DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     public Hit toHit(NewHitRequest request) {
         return Hit.builder()
                 .app(request.getApp())
                 .uri(request.getUri())
-                .ip(request.getIp())
+                .ip(toInetAddress(request.getIp()))
                 .timestamp(LocalDateTime.parse(request.getTimestamp(), formatter))
                 .build();
     }
@@ -27,8 +47,49 @@ public class HitMapper {
                 .id(hit.getId())
                 .app(hit.getApp())
                 .uri(hit.getUri())
-                .ip(hit.getIp())
+                .ip(hit.getIp().getHostAddress())
                 .timestamp(hit.getTimestamp().format(formatter))
                 .build();
     }
+
+    /**
+     * Проставляет хитам id приложения и uri из словарей. Известные id берутся из кэша,
+     * новые имена добавляются в словарь одним запросом на пачку.
+     */
+    public void fillDictionaryIds(List<Hit> hits) {
+        resolve(hits, Hit::getApp, appIds, DictionaryRepository.APPS);
+        resolve(hits, Hit::getUri, uriIds, DictionaryRepository.URIS);
+
+        for (Hit hit : hits) {
+            hit.setAppId(appIds.get(hit.getApp()));
+            hit.setUriId(uriIds.get(hit.getUri()));
+        }
+    }
+
+    /**
+     * Разбирает только IP-литералы: InetAddress.getByName для строки, не похожей на адрес,
+     * пошел бы в DNS прямо на пути записи хита.
+     */
+    public InetAddress toInetAddress(String ip) {
+        if (!IPV4.matcher(ip).matches() && !IPV6.matcher(ip).matches()) {
+            throw new BadRequestException(String.format("Некорректный IP-адрес: %s", ip));
+        }
+
+        try {
+            return InetAddress.getByName(ip);
+        } catch (UnknownHostException e) {
+            throw new BadRequestException(String.format("Некорректный IP-адрес: %s", ip));
+        }
+    }
+
+    private void resolve(List<Hit> hits, Function<Hit, String> name, Map<String, Integer> cache, String table) {
+        Set<String> missing = hits.stream()
+                .map(name)
+                .filter(value -> !cache.containsKey(value))
+                .collect(Collectors.toSet());
+
+        if (!missing.isEmpty()) {
+            cache.putAll(dictionaryRepository.findOrCreate(table, missing));
+        }
+    }
 }
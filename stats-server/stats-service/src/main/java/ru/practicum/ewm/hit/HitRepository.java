@@ -1,24 +1,62 @@
 package ru.practicum.ewm.hit;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.ewm.HitStatsDto;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface HitRepository extends JpaRepository<Hit, Long> {
-    List<Hit> findByUri(String uri);
+    @Query("SELECT new ru.practicum.ewm.HitStatsDto(a.name, u.name, COUNT(DISTINCT h.ip)) FROM Hit h " +
+            "JOIN App a ON a.id = h.appId JOIN Uri u ON u.id = h.uriId " +
+            "WHERE h.timestamp BETWEEN :start AND :end " +
+            "GROUP BY a.name, u.name " +
+            "ORDER BY COUNT(DISTINCT h.ip) DESC")
+    List<HitStatsDto> findUniqueStats(@Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end,
+                                      Pageable pageable);
 
-    @Query("select count(h.ip) from Hit h where (h.uri = ?3) and (h.timestamp between ?1 and ?2)")
-    Long countStatsByParamUnUnique(LocalDateTime start, LocalDateTime end, String uri);
+    @Query("SELECT new ru.practicum.ewm.HitStatsDto(a.name, u.name, COUNT(DISTINCT h.ip)) FROM Hit h " +
+            "JOIN App a ON a.id = h.appId JOIN Uri u ON u.id = h.uriId " +
+            "WHERE h.timestamp BETWEEN :start AND :end AND u.name IN :uris " +
+            "GROUP BY a.name, u.name " +
+            "ORDER BY COUNT(DISTINCT h.ip) DESC")
+    List<HitStatsDto> findUniqueStatsByUris(@Param("start") LocalDateTime start,
+                                            @Param("end") LocalDateTime end,
+                                            @Param("uris") List<String> uris,
+                                            Pageable pageable);
 
-    @Query("select count(distinct h.ip) from Hit h where (h.uri = ?3) and (h.timestamp between ?1 and ?2)")
-    Long countStatsByParamUnique(LocalDateTime start, LocalDateTime end, String uri);
+    @Query("SELECT new ru.practicum.ewm.HitStatsDto(a.name, u.name, COUNT(DISTINCT h.ip)) FROM Hit h " +
+            "JOIN App a ON a.id = h.appId JOIN Uri u ON u.id = h.uriId " +
+            "WHERE h.timestamp BETWEEN :start AND :end " +
+            "GROUP BY a.name, u.name " +
+            "ORDER BY COUNT(DISTINCT h.ip) DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<HitStatsDto> streamUniqueStats(@Param("start") LocalDateTime start,
+                                          @Param("end") LocalDateTime end);
 
-    @Query("SELECT COUNT(h) FROM Hit h WHERE h.ip = :ip AND h.uri = :uri")
-    Long countByIpAndUri(@Param("ip") String ip, @Param("uri") String uri);
+    @Query("SELECT new ru.practicum.ewm.HitStatsDto(a.name, u.name, COUNT(DISTINCT h.ip)) FROM Hit h " +
+            "JOIN App a ON a.id = h.appId JOIN Uri u ON u.id = h.uriId " +
+            "WHERE h.timestamp BETWEEN :start AND :end AND u.name IN :uris " +
+            "GROUP BY a.name, u.name " +
+            "ORDER BY COUNT(DISTINCT h.ip) DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<HitStatsDto> streamUniqueStatsByUris(@Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end,
+                                                @Param("uris") List<String> uris);
 
-    @Query("SELECT COUNT(DISTINCT h.ip) FROM Hit h WHERE h.uri = :uri")
+    @Query("SELECT COUNT(DISTINCT h.ip) FROM Hit h JOIN Uri u ON u.id = h.uriId WHERE u.name = :uri")
     Long countDistinctIpsByUri(@Param("uri") String uri);
+
+    @Query("SELECT u.name AS uri, COUNT(DISTINCT h.ip) AS views FROM Hit h JOIN Uri u ON u.id = h.uriId " +
+            "WHERE u.name IN :uris GROUP BY u.name")
+    List<UriViews> countDistinctIpsByUris(@Param("uris") Collection<String> uris);
 }
@@ -6,11 +6,26 @@ import ru.practicum.ewm.NewHitRequest;
 import ru.practicum.ewm.StatsRequestParam;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface HitService {
-    HitDto saveHit(NewHitRequest request);
+    /**
+     * Сохраняет хит. При включенном журнале хит только дописывается в него и попадает в базу позже,
+     * id у него еще нет - тогда возвращается пустой Optional.
+     */
+    Optional<HitDto> saveHit(NewHitRequest request);
+
+    Long saveHits(List<NewHitRequest> requests);
 
     List<HitStatsDto> getHitsStats(StatsRequestParam statsRequestParam);
 
-    Long countViewsByIp(String uri);
+    void checkStatsRequest(StatsRequestParam statsRequestParam);
+
+    void streamHitsStats(StatsRequestParam statsRequestParam, Consumer<HitStatsDto> consumer);
+
+    Long countViewsByIp(String uri, Boolean exact);
+
+    Map<String, Long> countViewsByIp(List<String> uris, Boolean exact);
 }
@@ -4,19 +4,27 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.HitDto;
 import ru.practicum.ewm.HitStatsDto;
 import ru.practicum.ewm.NewHitRequest;
 import ru.practicum.ewm.StatsRequestParam;
 import ru.practicum.ewm.exception.BadRequestException;
-import ru.practicum.ewm.exception.NotFoundException;
+import ru.practicum.ewm.rollup.HitRollupRepository;
+import ru.practicum.ewm.rollup.HitSketchRepository;
+import ru.practicum.ewm.wal.HitWal;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -25,19 +33,71 @@ import java.util.List;
 public class HitServiceImpl implements HitService {
     final HitRepository hitRepository;
     final HitMapper hitMapper;
+    final HitRollupRepository hitRollupRepository;
+    final HitSketchRepository hitSketchRepository;
+    final HitWriter hitWriter;
+    final HitWal hitWal;
     final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final int DEFAULT_LIMIT = 1000;
+    static final int MAX_LIMIT = 10000;
+    static final int MAX_VIEWS_URIS = 1000;
 
     @Override
-    public HitDto saveHit(NewHitRequest request) {
+    public Optional<HitDto> saveHit(NewHitRequest request) {
         Hit hit = hitMapper.toHit(request);
 
-        hit = hitRepository.save(hit);
+        if (hitWal.isEnabled()) {
+            hitWal.append(List.of(hit));
+            return Optional.empty();
+        }
 
-        return hitMapper.toHitDto(hit);
+        hitWriter.write(List.of(hit));
+        return Optional.of(hitMapper.toHitDto(hit));
+    }
+
+    @Override
+    public Long saveHits(List<NewHitRequest> requests) {
+        List<Hit> hits = requests.stream()
+                .map(hitMapper::toHit)
+                .toList();
+
+        if (hitWal.isEnabled()) {
+            hitWal.append(hits);
+        } else {
+            hitWriter.write(hits);
+        }
+
+        return (long) hits.size();
     }
 
     @Override
     public List<HitStatsDto> getHitsStats(StatsRequestParam statsRequestParam) {
+        checkStatsRequest(statsRequestParam);
+
+        LocalDateTime start = LocalDateTime.parse(statsRequestParam.getStart(), formatter);
+        LocalDateTime end = LocalDateTime.parse(statsRequestParam.getEnd(), formatter);
+        int limit = statsRequestParam.getLimit() != null ? statsRequestParam.getLimit() : DEFAULT_LIMIT;
+        List<String> uris = statsRequestParam.getUris();
+
+        if (!statsRequestParam.getUnique()) {
+            return hitRollupRepository.findStats(start, end.plusSeconds(1), uris, limit);
+        }
+
+        if (!Boolean.TRUE.equals(statsRequestParam.getExact())) {
+            return hitSketchRepository.findStats(start, end.plusSeconds(1), uris, limit);
+        }
+
+        Pageable pageable = PageRequest.of(0, limit);
+
+        if (uris == null || uris.isEmpty()) {
+            return hitRepository.findUniqueStats(start, end, pageable);
+        }
+
+        return hitRepository.findUniqueStatsByUris(start, end, uris, pageable);
+    }
+
+    @Override
+    public void checkStatsRequest(StatsRequestParam statsRequestParam) {
         LocalDateTime start = LocalDateTime.parse(statsRequestParam.getStart(), formatter);
         LocalDateTime end = LocalDateTime.parse(statsRequestParam.getEnd(), formatter);
 
@@ -45,67 +105,70 @@ public class HitServiceImpl implements HitService {
             throw new BadRequestException("Дата конца не может быть раньше даты начала");
         }
 
-        List<String> uris = statsRequestParam.getUris();
-        Boolean unique = statsRequestParam.getUnique();
+        Integer limit = statsRequestParam.getLimit();
 
-        List<HitStatsDto> listStats = new ArrayList<>();
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            throw new BadRequestException(String.format("Параметр limit должен быть от 1 до %d", MAX_LIMIT));
+        }
+    }
 
-        if (uris == null || uris.isEmpty()) {
-            List<Hit> hits = hitRepository.findAll();
-
-            for (Hit hit : hits) {
-                Long countHits;
-                if (unique) {
-                    countHits = hitRepository.countStatsByParamUnique(start, end, hit.getUri());
-                } else {
-                    countHits = hitRepository.countStatsByParamUnUnique(start, end, hit.getUri());
-                }
-
-                HitStatsDto hitStatsDto = HitStatsDto.builder()
-                        .app(hit.getApp())
-                        .uri(hit.getUri())
-                        .hits(countHits)
-                        .build();
-
-                listStats.add(hitStatsDto);
-            }
+    /**
+     * Потоковый вариант отчета без limit: строки читаются курсором и сразу передаются в consumer.
+     * Уникальные посетители считаются точно в базе: объединение скетчей потребовало бы держать
+     * в памяти скетч на каждую пару (app, uri).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamHitsStats(StatsRequestParam statsRequestParam, Consumer<HitStatsDto> consumer) {
+        checkStatsRequest(statsRequestParam);
+
+        LocalDateTime start = LocalDateTime.parse(statsRequestParam.getStart(), formatter);
+        LocalDateTime end = LocalDateTime.parse(statsRequestParam.getEnd(), formatter);
+        List<String> uris = statsRequestParam.getUris();
+        Stream<HitStatsDto> stats;
+
+        if (!statsRequestParam.getUnique()) {
+            stats = hitRollupRepository.streamStats(start, end.plusSeconds(1), uris);
+        } else if (uris == null || uris.isEmpty()) {
+            stats = hitRepository.streamUniqueStats(start, end);
         } else {
-            for (String uri : uris) {
-                List<Hit> hits = getHitsOrThrow(uri);
-                Long countHits;
-
-                if (unique) {
-                    countHits = hitRepository.countStatsByParamUnique(start, end, uri);
-                } else {
-                    countHits = hitRepository.countStatsByParamUnUnique(start, end, uri);
-                }
-
-                HitStatsDto hitStatsDto = HitStatsDto.builder()
-                        .app(hits.getFirst().getApp())
-                        .uri(uri)
-                        .hits(countHits)
-                        .build();
-
-                listStats.add(hitStatsDto);
-            }
+            stats = hitRepository.streamUniqueStatsByUris(start, end, uris);
         }
-        listStats.sort(Comparator.comparingLong(HitStatsDto::getHits).reversed());
 
-        return listStats;
+        try (stats) {
+            stats.forEach(consumer);
+        }
     }
 
     @Override
-    public Long countViewsByIp(String uri) {
-        return hitRepository.countDistinctIpsByUri(uri);
+    public Long countViewsByIp(String uri, Boolean exact) {
+        if (Boolean.TRUE.equals(exact)) {
+            return hitRepository.countDistinctIpsByUri(uri);
+        }
+
+        return hitSketchRepository.countDistinctIps(uri);
     }
 
-    private List<Hit> getHitsOrThrow(String uri) {
-        List<Hit> hitsUri = hitRepository.findByUri(uri);
+    @Override
+    public Map<String, Long> countViewsByIp(List<String> uris, Boolean exact) {
+        if (uris.size() > MAX_VIEWS_URIS) {
+            throw new BadRequestException(String.format("За один запрос можно получить просмотры не более %d uri",
+                    MAX_VIEWS_URIS));
+        }
 
-        if (hitsUri.isEmpty()) {
-            throw  new NotFoundException(String.format("URI - %s не найден", uri));
+        if (uris.isEmpty()) {
+            return Map.of();
         }
 
-        return hitsUri;
+        if (!Boolean.TRUE.equals(exact)) {
+            return hitSketchRepository.countDistinctIps(uris);
+        }
+
+        Map<String, Long> views = new LinkedHashMap<>();
+        uris.forEach(uri -> views.put(uri, 0L));
+        hitRepository.countDistinctIpsByUris(uris)
+                .forEach(uriViews -> views.put(uriViews.getUri(), uriViews.getViews()));
+
+        return views;
     }
 }
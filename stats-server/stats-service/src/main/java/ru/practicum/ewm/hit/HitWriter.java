@@ -0,0 +1,38 @@
+package ru.practicum.ewm.hit;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.rollup.HitRollupRepository;
+import ru.practicum.ewm.rollup.HitSketchRepository;
+
+import java.util.List;
+
+/**
+ * Единый путь записи хитов: сырые строки, агрегаты и скетчи сохраняются в одной транзакции.
+ * Словарные id проставляются до нее, поэтому откат записи не оставляет в кэше несуществующих id.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@AllArgsConstructor
+public class HitWriter {
+    HitRepository hitRepository;
+    HitRollupRepository hitRollupRepository;
+    HitSketchRepository hitSketchRepository;
+    HitMapper hitMapper;
+    TransactionTemplate transactionTemplate;
+
+    public List<Hit> write(List<Hit> hits) {
+        hitMapper.fillDictionaryIds(hits);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            hitRepository.saveAll(hits);
+            hitRollupRepository.addHits(hits);
+            hitSketchRepository.addHits(hits);
+        });
+
+        return hits;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.ewm.hit;
+
+public interface UriViews {
+    String getUri();
+
+    Long getViews();
+}
@@ -0,0 +1,67 @@
+package ru.practicum.ewm.partition;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Заранее создает суточные партиции hits на {@code days-ahead} дней вперед и удаляет
+ * партиции старше {@code retention-days} дней. При {@code retention-days=0} история хранится бессрочно.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class HitPartitionManager {
+    HitPartitionRepository hitPartitionRepository;
+    int daysAhead;
+    int retentionDays;
+
+    public HitPartitionManager(HitPartitionRepository hitPartitionRepository,
+                               @Value("${stats-service.partitions.days-ahead:7}") int daysAhead,
+                               @Value("${stats-service.partitions.retention-days:0}") int retentionDays) {
+        this.hitPartitionRepository = hitPartitionRepository;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${stats-service.partitions.cron:0 0 * * * *}")
+    public synchronized void maintainPartitions() {
+        LocalDate today = LocalDate.now();
+        List<LocalDate> existing = hitPartitionRepository.findPartitionDays();
+        Set<LocalDate> existingDays = new HashSet<>(existing);
+
+        for (LocalDate day = today; !day.isAfter(today.plusDays(daysAhead)); day = day.plusDays(1)) {
+            if (!existingDays.contains(day)) {
+                hitPartitionRepository.createPartition(day);
+                log.info("Создана партиция хитов за {}", day);
+            }
+        }
+
+        if (retentionDays <= 0) {
+            return;
+        }
+
+        LocalDate oldestKept = today.minusDays(retentionDays);
+        for (LocalDate day : existing) {
+            if (day.isBefore(oldestKept)) {
+                hitPartitionRepository.dropPartition(day);
+                log.info("Удалена партиция хитов за {} по сроку хранения {} дн.", day, retentionDays);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.ewm.partition;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Суточные партиции таблицы hits с именами вида hits_yyyyMMdd.
+ * Хиты, для дня которых партиции нет, попадают в hits_default.
+ */
+@Repository
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@AllArgsConstructor
+public class HitPartitionRepository {
+    static final String PARENT_TABLE = "hits";
+    static final String DEFAULT_PARTITION = "hits_default";
+    static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    static final Pattern PARTITION_NAME = Pattern.compile("hits_(\\d{8})");
+
+    JdbcTemplate jdbcTemplate;
+
+    public List<LocalDate> findPartitionDays() {
+        List<String> names = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = '" + PARENT_TABLE + "'::regclass", String.class);
+
+        return names.stream()
+                .map(PARTITION_NAME::matcher)
+                .filter(Matcher::matches)
+                .map(matcher -> LocalDate.parse(matcher.group(1), SUFFIX_FORMAT))
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Создает партицию за день. Хиты этого дня, уже попавшие в партицию по умолчанию,
+     * переносятся в новую партицию, иначе ее нельзя было бы присоединить.
+     */
+    @Transactional
+    public void createPartition(LocalDate day) {
+        String partition = partitionName(day);
+        String from = day.atStartOfDay().toString();
+        String to = day.plusDays(1).atStartOfDay().toString();
+
+        jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN SHARE MODE");
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + PARENT_TABLE + " INCLUDING DEFAULTS)");
+        jdbcTemplate.update("INSERT INTO " + partition + " SELECT * FROM " + DEFAULT_PARTITION +
+                " WHERE create_date >= ?::timestamp AND create_date < ?::timestamp", from, to);
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION +
+                " WHERE create_date >= ?::timestamp AND create_date < ?::timestamp", from, to);
+        jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION " + partition +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    public void dropPartition(LocalDate day) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(day));
+    }
+
+    private String partitionName(LocalDate day) {
+        return PARENT_TABLE + "_" + day.format(SUFFIX_FORMAT);
+    }
+}
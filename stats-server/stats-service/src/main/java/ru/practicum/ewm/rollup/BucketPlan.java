@@ -0,0 +1,71 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбиение полуинтервала [start, end) на целые крупные бакеты, целые мелкие бакеты
+ * на краях и остатки, которые приходится считать по сырым хитам.
+ */
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BucketPlan {
+    List<TimeRange> coarse = new ArrayList<>();
+    List<TimeRange> fine = new ArrayList<>();
+    List<TimeRange> raw = new ArrayList<>();
+
+    public static BucketPlan of(LocalDateTime start, LocalDateTime end, ChronoUnit fineUnit, ChronoUnit coarseUnit) {
+        BucketPlan plan = new BucketPlan();
+        LocalDateTime coarseStart = ceil(start, coarseUnit);
+        LocalDateTime coarseEnd = floor(end, coarseUnit);
+
+        if (coarseStart.isBefore(coarseEnd)) {
+            plan.coarse.add(new TimeRange(coarseStart, coarseEnd));
+            plan.splitEdge(new TimeRange(start, coarseStart), fineUnit);
+            plan.splitEdge(new TimeRange(coarseEnd, end), fineUnit);
+        } else {
+            plan.splitEdge(new TimeRange(start, end), fineUnit);
+        }
+
+        return plan;
+    }
+
+    public static LocalDateTime floor(LocalDateTime time, ChronoUnit unit) {
+        return time.truncatedTo(unit);
+    }
+
+    public static LocalDateTime ceil(LocalDateTime time, ChronoUnit unit) {
+        LocalDateTime truncated = time.truncatedTo(unit);
+        return truncated.equals(time) ? time : truncated.plus(1, unit);
+    }
+
+    private void splitEdge(TimeRange edge, ChronoUnit fineUnit) {
+        if (edge.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime fineStart = ceil(edge.getFrom(), fineUnit);
+        LocalDateTime fineEnd = floor(edge.getTo(), fineUnit);
+
+        if (!fineStart.isBefore(fineEnd)) {
+            raw.add(edge);
+            return;
+        }
+
+        fine.add(new TimeRange(fineStart, fineEnd));
+        addIfNotEmpty(raw, new TimeRange(edge.getFrom(), fineStart));
+        addIfNotEmpty(raw, new TimeRange(fineEnd, edge.getTo()));
+    }
+
+    private static void addIfNotEmpty(List<TimeRange> ranges, TimeRange range) {
+        if (!range.isEmpty()) {
+            ranges.add(range);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewm.HitStatsDto;
+import ru.practicum.ewm.hit.Hit;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+@Repository
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class HitRollupRepository {
+    static final String MINUTE_TABLE = "hit_rollups_minute";
+    static final String HOUR_TABLE = "hit_rollups_hour";
+    static final Comparator<RollupKey> KEY_ORDER = Comparator.comparingInt(RollupKey::appId)
+            .thenComparingInt(RollupKey::uriId)
+            .thenComparing(RollupKey::bucket);
+
+    static final int STREAM_FETCH_SIZE = 1000;
+    static final RowMapper<HitStatsDto> STATS_MAPPER = (rs, rowNum) -> HitStatsDto.builder()
+            .app(rs.getString("app"))
+            .uri(rs.getString("uri"))
+            .hits(rs.getLong("hits"))
+            .build();
+
+    NamedParameterJdbcTemplate jdbcTemplate;
+    NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    public HitRollupRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        streaming.setFetchSize(STREAM_FETCH_SIZE);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    public void addHits(Collection<Hit> hits) {
+        upsert(MINUTE_TABLE, aggregate(hits, ChronoUnit.MINUTES));
+        upsert(HOUR_TABLE, aggregate(hits, ChronoUnit.HOURS));
+    }
+
+    public List<HitStatsDto> findStats(LocalDateTime start, LocalDateTime end, List<String> uris, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        String sql = statsQuery(start, end, uris, params);
+
+        if (sql == null) {
+            return List.of();
+        }
+
+        return jdbcTemplate.query(sql + " LIMIT :limit", params, STATS_MAPPER);
+    }
+
+    /**
+     * Отдает все строки отчета без ограничения limit, читая их курсором порциями по {@value #STREAM_FETCH_SIZE}.
+     * Курсор работает только внутри транзакции, поток нужно закрыть.
+     */
+    public Stream<HitStatsDto> streamStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = statsQuery(start, end, uris, params);
+
+        if (sql == null) {
+            return Stream.empty();
+        }
+
+        return streamingJdbcTemplate.queryForStream(sql, params, STATS_MAPPER);
+    }
+
+    private String statsQuery(LocalDateTime start, LocalDateTime end, List<String> uris,
+                              MapSqlParameterSource params) {
+        BucketPlan plan = BucketPlan.of(start, end, ChronoUnit.MINUTES, ChronoUnit.HOURS);
+        String uriFilter = "";
+
+        if (uris != null && !uris.isEmpty()) {
+            uriFilter = " AND uri_id IN (SELECT id FROM uris WHERE name IN (:uris))";
+            params.addValue("uris", uris);
+        }
+
+        List<String> parts = new ArrayList<>();
+        for (TimeRange range : plan.getCoarse()) {
+            parts.add(rollupSelect(HOUR_TABLE, range, parts.size(), params, uriFilter));
+        }
+        for (TimeRange range : plan.getFine()) {
+            parts.add(rollupSelect(MINUTE_TABLE, range, parts.size(), params, uriFilter));
+        }
+        for (TimeRange range : plan.getRaw()) {
+            int index = parts.size();
+            addRange(params, range, index);
+            parts.add(String.format("SELECT app_id, uri_id, COUNT(*) AS hits FROM hits " +
+                    "WHERE create_date >= :from%1$d AND create_date < :to%1$d%2$s GROUP BY app_id, uri_id",
+                    index, uriFilter));
+        }
+
+        if (parts.isEmpty()) {
+            return null;
+        }
+
+        return "SELECT a.name AS app, u.name AS uri, SUM(s.hits) AS hits " +
+                "FROM (" + String.join(" UNION ALL ", parts) + ") s " +
+                "JOIN apps a ON a.id = s.app_id JOIN uris u ON u.id = s.uri_id " +
+                "GROUP BY a.name, u.name ORDER BY hits DESC, app, uri";
+    }
+
+    private String rollupSelect(String table, TimeRange range, int index, MapSqlParameterSource params,
+                                String uriFilter) {
+        addRange(params, range, index);
+        return String.format("SELECT app_id, uri_id, hits FROM %1$s WHERE bucket >= :from%2$d AND bucket < :to%2$d%3$s",
+                table, index, uriFilter);
+    }
+
+    private void addRange(MapSqlParameterSource params, TimeRange range, int index) {
+        params.addValue("from" + index, range.getFrom());
+        params.addValue("to" + index, range.getTo());
+    }
+
+    private Map<RollupKey, Long> aggregate(Collection<Hit> hits, ChronoUnit unit) {
+        // Сортировка ключей задает одинаковый порядок блокировок строк для параллельных пачек
+        Map<RollupKey, Long> counts = new TreeMap<>(KEY_ORDER);
+        for (Hit hit : hits) {
+            RollupKey key = new RollupKey(hit.getAppId(), hit.getUriId(), hit.getTimestamp().truncatedTo(unit));
+            counts.merge(key, 1L, Long::sum);
+        }
+
+        return counts;
+    }
+
+    private void upsert(String table, Map<RollupKey, Long> counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
+
+        String sql = String.format("INSERT INTO %1$s (app_id, uri_id, bucket, hits) " +
+                "VALUES (:appId, :uriId, :bucket, :hits) " +
+                "ON CONFLICT (app_id, uri_id, bucket) DO UPDATE SET hits = %1$s.hits + EXCLUDED.hits", table);
+
+        SqlParameterSource[] batch = counts.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("appId", entry.getKey().appId())
+                        .addValue("uriId", entry.getKey().uriId())
+                        .addValue("bucket", entry.getKey().bucket())
+                        .addValue("hits", entry.getValue()))
+                .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(sql, batch);
+    }
+
+    private record RollupKey(int appId, int uriId, LocalDateTime bucket) {
+    }
+}
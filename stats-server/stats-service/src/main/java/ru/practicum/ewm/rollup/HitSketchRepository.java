@@ -0,0 +1,244 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewm.HitStatsDto;
+import ru.practicum.ewm.hit.Hit;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Почасовые и посуточные HyperLogLog-скетчи IP-адресов по (app, uri).
+ * Скетч хранится построчно: только ненулевые регистры, по строке на (app, uri, bucket, idx).
+ */
+@Repository
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@AllArgsConstructor
+public class HitSketchRepository {
+    static final String HOUR_TABLE = "hit_sketches_hour";
+    static final String DAY_TABLE = "hit_sketches_day";
+    static final Comparator<SketchKey> KEY_ORDER = Comparator.comparingInt(SketchKey::appId)
+            .thenComparingInt(SketchKey::uriId)
+            .thenComparing(SketchKey::bucket)
+            .thenComparingInt(SketchKey::idx);
+    static final Comparator<HitStatsDto> STATS_ORDER = Comparator.comparing(HitStatsDto::getHits).reversed()
+            .thenComparing(HitStatsDto::getApp)
+            .thenComparing(HitStatsDto::getUri);
+
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void addHits(Collection<Hit> hits) {
+        upsert(HOUR_TABLE, aggregate(hits, ChronoUnit.HOURS));
+        upsert(DAY_TABLE, aggregate(hits, ChronoUnit.DAYS));
+    }
+
+    public List<HitStatsDto> findStats(LocalDateTime start, LocalDateTime end, List<String> uris, int limit) {
+        BucketPlan plan = BucketPlan.of(start, end, ChronoUnit.HOURS, ChronoUnit.DAYS);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String uriFilter = "";
+
+        if (uris != null && !uris.isEmpty()) {
+            uriFilter = " AND uri_id IN (SELECT id FROM uris WHERE name IN (:uris))";
+            params.addValue("uris", uris);
+        }
+
+        List<String> parts = new ArrayList<>();
+        for (TimeRange range : plan.getCoarse()) {
+            parts.add(sketchSelect(DAY_TABLE, range, parts.size(), params, uriFilter));
+        }
+        for (TimeRange range : plan.getFine()) {
+            parts.add(sketchSelect(HOUR_TABLE, range, parts.size(), params, uriFilter));
+        }
+
+        List<String> rawRanges = new ArrayList<>();
+        for (TimeRange range : plan.getRaw()) {
+            int index = parts.size() + rawRanges.size();
+            params.addValue("from" + index, range.getFrom());
+            params.addValue("to" + index, range.getTo());
+            rawRanges.add(String.format("(create_date >= :from%1$d AND create_date < :to%1$d)", index));
+        }
+
+        List<String> branches = new ArrayList<>();
+        if (!parts.isEmpty()) {
+            branches.add("SELECT app_id, uri_id, idx, MAX(rank) AS rank, CAST(NULL AS INET) AS ip " +
+                    "FROM (" + String.join(" UNION ALL ", parts) + ") r GROUP BY app_id, uri_id, idx");
+        }
+        if (!rawRanges.isEmpty()) {
+            branches.add("SELECT DISTINCT app_id, uri_id, CAST(NULL AS SMALLINT), CAST(NULL AS SMALLINT), ip FROM hits " +
+                    "WHERE (" + String.join(" OR ", rawRanges) + ")" + uriFilter);
+        }
+
+        TopEstimates top = new TopEstimates(limit);
+        if (branches.isEmpty()) {
+            return top.result();
+        }
+
+        // Строки одного (app, uri) идут подряд, поэтому в памяти открыт только один скетч,
+        // а готовые оценки проходят через кучу из limit лучших
+        String sql = "SELECT a.name AS app, u.name AS uri, s.idx, s.rank, host(s.ip) AS ip " +
+                "FROM (" + String.join(" UNION ALL ", branches) + ") s " +
+                "JOIN apps a ON a.id = s.app_id JOIN uris u ON u.id = s.uri_id " +
+                "ORDER BY s.app_id, s.uri_id";
+
+        jdbcTemplate.query(sql, params, rs -> {
+            HyperLogLog sketch = top.sketchFor(rs.getString("app"), rs.getString("uri"));
+            String ip = rs.getString("ip");
+
+            if (ip != null) {
+                sketch.add(toAddress(ip));
+            } else {
+                sketch.merge(rs.getInt("idx"), rs.getInt("rank"));
+            }
+        });
+
+        return top.result();
+    }
+
+    public Long countDistinctIps(String uri) {
+        return countDistinctIps(List.of(uri)).get(uri);
+    }
+
+    /**
+     * Число уникальных IP за все время по каждому uri, для неизвестных uri - 0.
+     */
+    public Map<String, Long> countDistinctIps(Collection<String> uris) {
+        Map<String, HyperLogLog> sketches = new HashMap<>();
+
+        jdbcTemplate.query("SELECT u.name AS uri, s.idx, MAX(s.rank) AS rank FROM " + DAY_TABLE + " s " +
+                        "JOIN uris u ON u.id = s.uri_id WHERE u.name IN (:uris) GROUP BY u.name, s.idx",
+                new MapSqlParameterSource("uris", uris),
+                rs -> {
+                    sketches.computeIfAbsent(rs.getString("uri"), key -> new HyperLogLog())
+                            .merge(rs.getInt("idx"), rs.getInt("rank"));
+                });
+
+        Map<String, Long> views = new LinkedHashMap<>();
+        for (String uri : uris) {
+            HyperLogLog sketch = sketches.get(uri);
+            views.put(uri, sketch != null ? sketch.estimate() : 0L);
+        }
+
+        return views;
+    }
+
+    private String sketchSelect(String table, TimeRange range, int index, MapSqlParameterSource params,
+                                String uriFilter) {
+        params.addValue("from" + index, range.getFrom());
+        params.addValue("to" + index, range.getTo());
+        return String.format("SELECT app_id, uri_id, idx, rank FROM %1$s WHERE bucket >= :from%2$d AND bucket < :to%2$d%3$s",
+                table, index, uriFilter);
+    }
+
+    private Map<SketchKey, Integer> aggregate(Collection<Hit> hits, ChronoUnit unit) {
+        // Сортировка ключей задает одинаковый порядок блокировок строк для параллельных пачек
+        Map<SketchKey, Integer> ranks = new TreeMap<>(KEY_ORDER);
+        for (Hit hit : hits) {
+            long hash = HyperLogLog.hash(hit.getIp().getAddress());
+            SketchKey key = new SketchKey(hit.getAppId(), hit.getUriId(), hit.getTimestamp().truncatedTo(unit),
+                    HyperLogLog.index(hash));
+            ranks.merge(key, HyperLogLog.rank(hash), Math::max);
+        }
+
+        return ranks;
+    }
+
+    private void upsert(String table, Map<SketchKey, Integer> ranks) {
+        if (ranks.isEmpty()) {
+            return;
+        }
+
+        String sql = String.format("INSERT INTO %1$s (app_id, uri_id, bucket, idx, rank) " +
+                "VALUES (:appId, :uriId, :bucket, :idx, :rank) " +
+                "ON CONFLICT (app_id, uri_id, bucket, idx) DO UPDATE SET rank = EXCLUDED.rank " +
+                "WHERE %1$s.rank < EXCLUDED.rank", table);
+
+        SqlParameterSource[] batch = ranks.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("appId", entry.getKey().appId())
+                        .addValue("uriId", entry.getKey().uriId())
+                        .addValue("bucket", entry.getKey().bucket())
+                        .addValue("idx", entry.getKey().idx())
+                        .addValue("rank", entry.getValue()))
+                .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(sql, batch);
+    }
+
+    private static byte[] toAddress(String literal) {
+        try {
+            return InetAddress.getByName(literal).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record SketchKey(int appId, int uriId, LocalDateTime bucket, int idx) {
+    }
+
+    /**
+     * Оценки по (app, uri), приходящим подряд: держит открытым один скетч и не больше limit лучших оценок.
+     */
+    private static final class TopEstimates {
+        final int limit;
+        final PriorityQueue<HitStatsDto> top = new PriorityQueue<>(STATS_ORDER.reversed());
+        String app;
+        String uri;
+        HyperLogLog sketch;
+
+        TopEstimates(int limit) {
+            this.limit = limit;
+        }
+
+        HyperLogLog sketchFor(String nextApp, String nextUri) {
+            if (sketch == null || !nextApp.equals(app) || !nextUri.equals(uri)) {
+                finish();
+                app = nextApp;
+                uri = nextUri;
+                sketch = new HyperLogLog();
+            }
+
+            return sketch;
+        }
+
+        List<HitStatsDto> result() {
+            finish();
+
+            return top.stream()
+                    .sorted(STATS_ORDER)
+                    .toList();
+        }
+
+        private void finish() {
+            if (sketch == null) {
+                return;
+            }
+
+            top.add(HitStatsDto.builder()
+                    .app(app)
+                    .uri(uri)
+                    .hits(sketch.estimate())
+                    .build());
+            if (top.size() > limit) {
+                top.poll();
+            }
+            sketch = null;
+        }
+    }
+}
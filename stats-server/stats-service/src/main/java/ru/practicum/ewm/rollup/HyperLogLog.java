@@ -0,0 +1,74 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * HyperLogLog с 2^12 регистрами: стандартная ошибка оценки 1.04 / sqrt(4096) ≈ 1.6%.
+ * Для небольших множеств (до ~10 тысяч значений) используется линейный подсчет, его ошибка около 1%.
+ * Скетчи объединяются взятием максимума по каждому регистру, поэтому их можно хранить по бакетам и складывать.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class HyperLogLog {
+    public static final int PRECISION = 12;
+    public static final int REGISTERS = 1 << PRECISION;
+    static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+    static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    static final long FNV_PRIME = 0x100000001b3L;
+
+    byte[] registers = new byte[REGISTERS];
+
+    public static int index(long hash) {
+        return (int) (hash >>> (Long.SIZE - PRECISION));
+    }
+
+    public static int rank(long hash) {
+        return Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+    }
+
+    public static long hash(byte[] value) {
+        long hash = FNV_OFFSET;
+        for (byte b : value) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+
+        // FNV плохо перемешивает старшие биты для коротких похожих значений вроде IP-адресов
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+
+    public void add(byte[] value) {
+        long hash = hash(value);
+        merge(index(hash), rank(hash));
+    }
+
+    public void merge(int index, int rank) {
+        if (registers[index] < rank) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+
+        return Math.round(estimate);
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.ewm.rollup;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TimeRange {
+    LocalDateTime from;
+    LocalDateTime to;
+
+    public boolean isEmpty() {
+        return !from.isBefore(to);
+    }
+}
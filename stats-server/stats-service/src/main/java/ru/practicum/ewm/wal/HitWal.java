@@ -0,0 +1,300 @@
+package ru.practicum.ewm.wal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.hit.Hit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал хитов на локальном диске. Хиты дописываются в отображенный в память сегмент фиксированного размера,
+ * заполненный сегмент закрывается и начинается следующий. Запись: длина, CRC32 и сами поля хита;
+ * нулевая длина означает конец данных сегмента. Записанное переживает падение процесса, но не питания:
+ * сброс на диск выполняется только при закрытии сегмента. Сегмент закрывается, когда заполнен, когда в него
+ * ничего не писали {@code sealIdle} или когда он открыт дольше {@code sealMaxAge} - так редкие хиты
+ * не порождают по новому файлу на каждый проход загрузчика, но и не ждут заполнения сегмента бесконечно.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitWal {
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".wal";
+    static final String FAILED_SUFFIX = ".failed";
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    final boolean enabled;
+    final Path directory;
+    final int segmentSize;
+    final Duration sealIdle;
+    final Duration sealMaxAge;
+    final Deque<Path> sealed = new ArrayDeque<>();
+    long nextSegment;
+    Path activePath;
+    FileChannel activeChannel;
+    MappedByteBuffer active;
+    Instant activeOpenedAt;
+    Instant lastAppendAt;
+
+    public HitWal(@Value("${stats-service.hits.wal.enabled:false}") boolean enabled,
+                  @Value("${stats-service.hits.wal.dir:hit-wal}") Path directory,
+                  @Value("${stats-service.hits.wal.segment-size:4194304}") int segmentSize,
+                  @Value("${stats-service.hits.wal.seal-idle-ms:5000}") long sealIdleMs,
+                  @Value("${stats-service.hits.wal.seal-max-age-ms:60000}") long sealMaxAgeMs) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sealIdle = Duration.ofMillis(sealIdleMs);
+        this.sealMaxAge = Duration.ofMillis(sealMaxAgeMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(HitWal::isSegment)
+                    .sorted()
+                    .forEach(sealed::add);
+        }
+
+        if (!sealed.isEmpty()) {
+            nextSegment = segmentNumber(sealed.getLast()) + 1;
+            log.info("В журнале хитов найдено {} недогруженных сегментов", sealed.size());
+        }
+    }
+
+    public synchronized void append(List<Hit> hits) {
+        lastAppendAt = Instant.now();
+        for (Hit hit : hits) {
+            byte[] record = encode(hit);
+
+            if (active != null && active.remaining() < HEADER_SIZE + record.length) {
+                seal();
+            }
+            if (active == null) {
+                startSegment();
+            }
+            if (active.remaining() < HEADER_SIZE + record.length) {
+                throw new IllegalStateException("Хит не помещается в сегмент журнала размером " + segmentSize);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            active.putInt(record.length);
+            active.putInt((int) crc.getValue());
+            active.put(record);
+        }
+    }
+
+    /**
+     * Закрывает текущий сегмент, если в нем есть данные и он простаивает или устарел,
+     * и возвращает все сегменты, готовые к загрузке.
+     */
+    public synchronized List<Path> sealForDrain() {
+        Instant now = Instant.now();
+        if (active != null && active.position() > 0
+                && (!lastAppendAt.plus(sealIdle).isAfter(now) || !activeOpenedAt.plus(sealMaxAge).isAfter(now))) {
+            seal();
+        }
+
+        return new ArrayList<>(sealed);
+    }
+
+    public List<Hit> read(Path segment) {
+        List<Hit> hits = new ArrayList<>();
+
+        try {
+            // Чтение в кучу, а не отображение: отображение файла живет до сборки мусора даже после удаления
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+
+                byte[] record = new byte[length];
+                buffer.get(record);
+
+                CRC32 crc = new CRC32();
+                crc.update(record);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Поврежденная запись в сегменте {}, остаток сегмента пропущен", segment);
+                    break;
+                }
+
+                hits.add(decode(record));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return hits;
+    }
+
+    public synchronized void remove(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        sealed.remove(segment);
+    }
+
+    /**
+     * Убирает сегмент из очереди загрузки, переименовывая его в *.failed: при следующем запуске он не подхватится,
+     * но останется на диске для разбора.
+     */
+    public synchronized Path quarantine(Path segment) {
+        Path failed = segment.resolveSibling(segment.getFileName() + FAILED_SUFFIX);
+
+        try {
+            Files.move(segment, failed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        sealed.remove(segment);
+        return failed;
+    }
+
+    /**
+     * Число сегментов, ожидающих загрузки, включая текущий, если в нем есть данные.
+     */
+    public synchronized int pendingSegments() {
+        return sealed.size() + (active != null && active.position() > 0 ? 1 : 0);
+    }
+
+    /**
+     * Размер на диске сегментов, ожидающих загрузки, и записанная часть текущего сегмента.
+     */
+    public synchronized long pendingBytes() {
+        long bytes = active != null ? active.position() : 0;
+
+        for (Path segment : sealed) {
+            try {
+                bytes += Files.size(segment);
+            } catch (IOException e) {
+                log.warn("Не удалось получить размер сегмента журнала хитов {}: {}", segment, e.getMessage());
+            }
+        }
+
+        return bytes;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (active != null) {
+            seal();
+        }
+    }
+
+    private void startSegment() {
+        activePath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+
+        try {
+            activeChannel = FileChannel.open(activePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            activeOpenedAt = Instant.now();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void seal() {
+        try {
+            active.force();
+            activeChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        sealed.add(activePath);
+        active = null;
+        activeChannel = null;
+        activePath = null;
+    }
+
+    private static byte[] encode(Hit hit) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(hit.getApp());
+            out.writeUTF(hit.getUri());
+            out.writeByte(hit.getIp().getAddress().length);
+            out.write(hit.getIp().getAddress());
+            out.writeLong(hit.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(hit.getTimestamp().getNano());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static Hit decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            String app = in.readUTF();
+            String uri = in.readUTF();
+            byte[] address = new byte[in.readUnsignedByte()];
+            in.readFully(address);
+
+            return Hit.builder()
+                    .app(app)
+                    .uri(uri)
+                    .ip(InetAddress.getByAddress(address))
+                    .timestamp(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
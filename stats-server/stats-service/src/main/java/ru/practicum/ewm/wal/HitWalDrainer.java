@@ -0,0 +1,109 @@
+package ru.practicum.ewm.wal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.hit.Hit;
+import ru.practicum.ewm.hit.HitWriter;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Загружает сегменты журнала в базу по одному сегменту на транзакцию и удаляет загруженные файлы.
+ * Если процесс упадет между коммитом и удалением файла, сегмент загрузится повторно (at-least-once).
+ * Сегмент, который не удалось загрузить {@code maxAttempts} раз подряд, откладывается в *.failed,
+ * чтобы не задерживать следующие. Очередь видна в метриках hits.wal.pending.*.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class HitWalDrainer {
+    HitWal hitWal;
+    HitWriter hitWriter;
+    int maxAttempts;
+    Map<Path, Integer> attempts = new HashMap<>();
+    Counter quarantined;
+
+    public HitWalDrainer(HitWal hitWal,
+                         HitWriter hitWriter,
+                         @Value("${stats-service.hits.wal.max-attempts:5}") int maxAttempts,
+                         MeterRegistry meterRegistry) {
+        this.hitWal = hitWal;
+        this.hitWriter = hitWriter;
+        this.maxAttempts = maxAttempts;
+
+        Gauge.builder("hits.wal.pending.segments", hitWal, HitWal::pendingSegments)
+                .description("Число сегментов журнала хитов, ожидающих загрузки")
+                .register(meterRegistry);
+        Gauge.builder("hits.wal.pending.bytes", hitWal, HitWal::pendingBytes)
+                .description("Объем сегментов журнала хитов, ожидающих загрузки")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        quarantined = Counter.builder("hits.wal.quarantined")
+                .description("Число сегментов журнала хитов, отложенных после неудачных загрузок")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${stats-service.hits.wal.drain-interval-ms:1000}")
+    public synchronized void drain() {
+        if (!hitWal.isEnabled()) {
+            return;
+        }
+
+        for (Path segment : hitWal.sealForDrain()) {
+            int size;
+
+            try {
+                List<Hit> hits = hitWal.read(segment);
+                if (!hits.isEmpty()) {
+                    hitWriter.write(hits);
+                }
+                size = hits.size();
+            } catch (RuntimeException e) {
+                if (!fail(segment, e)) {
+                    return;
+                }
+                continue;
+            }
+
+            attempts.remove(segment);
+            hitWal.remove(segment);
+            log.debug("Сегмент журнала хитов {} загружен, хитов: {}", segment, size);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drain();
+    }
+
+    /**
+     * Учитывает неудачную загрузку. Возвращает true, если сегмент отложен и можно переходить к следующему.
+     */
+    private boolean fail(Path segment, RuntimeException e) {
+        int failures = attempts.merge(segment, 1, Integer::sum);
+
+        if (failures < maxAttempts) {
+            log.warn("Не удалось загрузить сегмент журнала хитов {} (попытка {} из {}): {}",
+                    segment, failures, maxAttempts, e.getMessage());
+            return false;
+        }
+
+        attempts.remove(segment);
+        Path failed = hitWal.quarantine(segment);
+        quarantined.increment();
+        log.error("Сегмент журнала хитов не загружен после {} попыток и перенесен в {}", maxAttempts, failed, e);
+
+        return true;
+    }
+}
@@ -1,10 +1,80 @@
 DROP TABLE IF EXISTS hits CASCADE;
+DROP TABLE IF EXISTS hit_rollups_minute CASCADE;
+DROP TABLE IF EXISTS hit_rollups_hour CASCADE;
+DROP TABLE IF EXISTS hit_sketches_hour CASCADE;
+DROP TABLE IF EXISTS hit_sketches_day CASCADE;
+DROP TABLE IF EXISTS apps CASCADE;
+DROP TABLE IF EXISTS uris CASCADE;
+DROP SEQUENCE IF EXISTS hits_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS hits_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS apps (
+  id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  CONSTRAINT pk_app PRIMARY KEY (id),
+  CONSTRAINT uq_app_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS uris (
+  id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  CONSTRAINT pk_uri PRIMARY KEY (id),
+  CONSTRAINT uq_uri_name UNIQUE (name)
+);
 
 CREATE TABLE IF NOT EXISTS hits (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-  app VARCHAR(255) NOT NULL,
-  uri VARCHAR(255) NOT NULL,
-  ip VARCHAR(255) NOT NULL,
+  id BIGINT DEFAULT nextval('hits_id_seq') NOT NULL,
+  app_id INTEGER NOT NULL REFERENCES apps (id),
+  uri_id INTEGER NOT NULL REFERENCES uris (id),
+  ip INET NOT NULL,
   create_date TIMESTAMP NOT NULL,
-  CONSTRAINT pk_hit PRIMARY KEY (id)
-);
\ No newline at end of file
+  CONSTRAINT pk_hit PRIMARY KEY (id, create_date)
+) PARTITION BY RANGE (create_date);
+
+CREATE TABLE IF NOT EXISTS hits_default PARTITION OF hits DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_hits_create_date ON hits (create_date);
+CREATE INDEX IF NOT EXISTS idx_hits_uri_create_date ON hits (uri_id, create_date);
+
+CREATE TABLE IF NOT EXISTS hit_rollups_minute (
+  app_id INTEGER NOT NULL,
+  uri_id INTEGER NOT NULL,
+  bucket TIMESTAMP NOT NULL,
+  hits BIGINT NOT NULL,
+  CONSTRAINT pk_hit_rollup_minute PRIMARY KEY (uri_id, bucket, app_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hit_rollups_minute_bucket ON hit_rollups_minute (bucket);
+
+CREATE TABLE IF NOT EXISTS hit_rollups_hour (
+  app_id INTEGER NOT NULL,
+  uri_id INTEGER NOT NULL,
+  bucket TIMESTAMP NOT NULL,
+  hits BIGINT NOT NULL,
+  CONSTRAINT pk_hit_rollup_hour PRIMARY KEY (uri_id, bucket, app_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hit_rollups_hour_bucket ON hit_rollups_hour (bucket);
+
+CREATE TABLE IF NOT EXISTS hit_sketches_hour (
+  app_id INTEGER NOT NULL,
+  uri_id INTEGER NOT NULL,
+  bucket TIMESTAMP NOT NULL,
+  idx SMALLINT NOT NULL,
+  rank SMALLINT NOT NULL,
+  CONSTRAINT pk_hit_sketch_hour PRIMARY KEY (uri_id, bucket, app_id, idx)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hit_sketches_hour_bucket ON hit_sketches_hour (bucket);
+
+CREATE TABLE IF NOT EXISTS hit_sketches_day (
+  app_id INTEGER NOT NULL,
+  uri_id INTEGER NOT NULL,
+  bucket TIMESTAMP NOT NULL,
+  idx SMALLINT NOT NULL,
+  rank SMALLINT NOT NULL,
+  CONSTRAINT pk_hit_sketch_day PRIMARY KEY (uri_id, bucket, app_id, idx)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hit_sketches_day_bucket ON hit_sketches_day (bucket);
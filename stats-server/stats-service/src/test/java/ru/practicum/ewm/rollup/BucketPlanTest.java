@@ -0,0 +1,148 @@
+package ru.practicum.ewm.rollup;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BucketPlanTest {
+    static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @Test
+    void testRangeAlignedToHoursIsCoveredByHourBuckets() {
+        BucketPlan plan = plan(at("10:00"), at("13:00"));
+
+        assertRanges(List.of(span("10:00", "13:00")), plan.getCoarse());
+        assertTrue(plan.getFine().isEmpty());
+        assertTrue(plan.getRaw().isEmpty());
+        assertExactCover(plan, at("10:00"), at("13:00"));
+    }
+
+    @Test
+    void testRangeUnalignedAtBothEndsIsSplitIntoHoursMinutesAndRawEdges() {
+        // end = 12:15:19 включительно, то есть полуинтервал до 12:15:20
+        BucketPlan plan = plan(at("09:47:30"), at("12:15:19").plusSeconds(1));
+
+        assertRanges(List.of(span("10:00", "12:00")), plan.getCoarse());
+        assertRanges(List.of(span("09:48", "10:00"), span("12:00", "12:15")), plan.getFine());
+        assertRanges(List.of(span("09:47:30", "09:48"), span("12:15", "12:15:20")), plan.getRaw());
+        assertExactCover(plan, at("09:47:30"), at("12:15:20"));
+    }
+
+    @Test
+    void testRangeWithinHourUsesOnlyMinuteBucketsAndRawEdges() {
+        BucketPlan plan = plan(at("10:05:30"), at("10:20:10"));
+
+        assertTrue(plan.getCoarse().isEmpty());
+        assertRanges(List.of(span("10:06", "10:20")), plan.getFine());
+        assertRanges(List.of(span("10:05:30", "10:06"), span("10:20", "10:20:10")), plan.getRaw());
+        assertExactCover(plan, at("10:05:30"), at("10:20:10"));
+    }
+
+    @Test
+    void testSubMinuteRangeIsRawOnly() {
+        BucketPlan plan = plan(at("10:05:10"), at("10:05:50"));
+
+        assertTrue(plan.getCoarse().isEmpty());
+        assertTrue(plan.getFine().isEmpty());
+        assertRanges(List.of(span("10:05:10", "10:05:50")), plan.getRaw());
+    }
+
+    @Test
+    void testInclusiveEndJustBeforeBorderStopsAtBorder() {
+        // end = 10:59:59 включительно: хиты в 11:00:00 в отчет не попадают
+        BucketPlan plan = plan(at("09:30"), at("10:59:59").plusSeconds(1));
+
+        assertRanges(List.of(span("10:00", "11:00")), plan.getCoarse());
+        assertRanges(List.of(span("09:30", "10:00")), plan.getFine());
+        assertTrue(plan.getRaw().isEmpty());
+        assertEquals(0, coveringCount(plan, at("11:00")));
+        assertExactCover(plan, at("09:30"), at("11:00"));
+    }
+
+    @Test
+    void testInclusiveEndOnBorderCountsBorderSecondOnce() {
+        // end = 11:00:00 включительно: хит ровно на границе часа считается по сырым данным
+        BucketPlan plan = plan(at("09:30"), at("11:00").plusSeconds(1));
+
+        assertRanges(List.of(span("10:00", "11:00")), plan.getCoarse());
+        assertRanges(List.of(span("09:30", "10:00")), plan.getFine());
+        assertRanges(List.of(span("11:00", "11:00:01")), plan.getRaw());
+        assertEquals(1, coveringCount(plan, at("10:59:59")));
+        assertEquals(1, coveringCount(plan, at("11:00")));
+        assertEquals(1, coveringCount(plan, at("09:30")));
+        assertExactCover(plan, at("09:30"), at("11:00:01"));
+    }
+
+    @Test
+    void testDayAndHourBucketsForSketches() {
+        LocalDateTime start = DAY.atTime(LocalTime.parse("22:15"));
+        LocalDateTime end = DAY.plusDays(2).atTime(LocalTime.parse("01:00"));
+        BucketPlan plan = BucketPlan.of(start, end, ChronoUnit.HOURS, ChronoUnit.DAYS);
+
+        assertRanges(List.of(new TimeRange(DAY.plusDays(1).atStartOfDay(), DAY.plusDays(2).atStartOfDay())),
+                plan.getCoarse());
+        assertRanges(List.of(new TimeRange(DAY.atTime(23, 0), DAY.plusDays(1).atStartOfDay()),
+                new TimeRange(DAY.plusDays(2).atStartOfDay(), end)), plan.getFine());
+        assertRanges(List.of(new TimeRange(start, DAY.atTime(23, 0))), plan.getRaw());
+        assertExactCover(plan, start, end);
+    }
+
+    @Test
+    void testEmptyRangeHasNoPieces() {
+        BucketPlan plan = plan(at("10:00"), at("10:00"));
+
+        assertTrue(plan.getCoarse().isEmpty());
+        assertTrue(plan.getFine().isEmpty());
+        assertTrue(plan.getRaw().isEmpty());
+    }
+
+    private static BucketPlan plan(LocalDateTime start, LocalDateTime end) {
+        return BucketPlan.of(start, end, ChronoUnit.MINUTES, ChronoUnit.HOURS);
+    }
+
+    /**
+     * Куски плана не пересекаются, не пустые и без пропусков покрывают [start, end).
+     */
+    private static void assertExactCover(BucketPlan plan, LocalDateTime start, LocalDateTime end) {
+        List<TimeRange> pieces = new ArrayList<>(Stream.of(plan.getCoarse(), plan.getFine(), plan.getRaw())
+                .flatMap(List::stream)
+                .toList());
+        pieces.sort(Comparator.comparing(TimeRange::getFrom));
+
+        LocalDateTime covered = start;
+        for (TimeRange piece : pieces) {
+            assertFalse(piece.isEmpty(), "Пустой кусок " + piece);
+            assertEquals(covered, piece.getFrom(), "Пропуск или пересечение перед " + piece);
+            covered = piece.getTo();
+        }
+        assertEquals(end, covered);
+    }
+
+    private static long coveringCount(BucketPlan plan, LocalDateTime time) {
+        return Stream.of(plan.getCoarse(), plan.getFine(), plan.getRaw())
+                .flatMap(List::stream)
+                .filter(range -> !time.isBefore(range.getFrom()) && time.isBefore(range.getTo()))
+                .count();
+    }
+
+    private static void assertRanges(List<TimeRange> expected, List<TimeRange> actual) {
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    private static TimeRange span(String from, String to) {
+        return new TimeRange(at(from), at(to));
+    }
+
+    private static LocalDateTime at(String time) {
+        return DAY.atTime(LocalTime.parse(time));
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.ewm.rollup;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+    @Test
+    void testIndexTakesTopBits() {
+        assertEquals(0, HyperLogLog.index(0L));
+        assertEquals(HyperLogLog.REGISTERS - 1, HyperLogLog.index(-1L));
+        assertEquals(1, HyperLogLog.index(1L << (Long.SIZE - HyperLogLog.PRECISION)));
+    }
+
+    @Test
+    void testRankCountsLeadingZerosAfterIndex() {
+        assertEquals(1, HyperLogLog.rank(1L << (Long.SIZE - HyperLogLog.PRECISION - 1)));
+        assertEquals(3, HyperLogLog.rank(1L << (Long.SIZE - HyperLogLog.PRECISION - 3)));
+        // Нулевой остаток ограничен сторожевым битом
+        assertEquals(Long.SIZE - HyperLogLog.PRECISION + 1, HyperLogLog.rank(0L));
+    }
+
+    @Test
+    void testEmptySketch() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void testSmallSetUsesLinearCounting() {
+        HyperLogLog sketch = sketchOf(0, 1_000);
+
+        // Сырая оценка HyperLogLog для 1000 значений на 4096 регистрах завышена в разы, линейный подсчет - нет
+        assertEquals(1_000, sketch.estimate(), 1_000 * 0.03);
+    }
+
+    @Test
+    void testLargeSetWithinErrorBound() {
+        int count = 1_000_000;
+        HyperLogLog sketch = sketchOf(0, count);
+
+        // Три стандартные ошибки: 3 * 1.04 / sqrt(4096) ≈ 4.9%
+        assertEquals(count, sketch.estimate(), count * 0.049);
+    }
+
+    @Test
+    void testDuplicatesDoNotChangeEstimate() {
+        HyperLogLog sketch = sketchOf(0, 5_000);
+        long estimate = sketch.estimate();
+
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add(address(i));
+        }
+
+        assertEquals(estimate, sketch.estimate());
+    }
+
+    @Test
+    void testMergedRegistersEstimateUnion() {
+        HyperLogLog left = sketchOf(0, 30_000);
+        HyperLogLog right = sketchOf(20_000, 50_000);
+        HyperLogLog union = sketchOf(0, 50_000);
+
+        for (int i = 20_000; i < 50_000; i++) {
+            long hash = HyperLogLog.hash(address(i));
+            left.merge(HyperLogLog.index(hash), HyperLogLog.rank(hash));
+        }
+
+        assertEquals(union.estimate(), left.estimate());
+        assertTrue(right.estimate() < union.estimate());
+    }
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add(address(i));
+        }
+
+        return sketch;
+    }
+
+    private static byte[] address(int value) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+    }
+}
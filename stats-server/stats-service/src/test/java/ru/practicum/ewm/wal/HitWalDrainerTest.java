@@ -0,0 +1,106 @@
+package ru.practicum.ewm.wal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatcher;
+import ru.practicum.ewm.hit.Hit;
+import ru.practicum.ewm.hit.HitWriter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class HitWalDrainerTest {
+    @TempDir
+    Path directory;
+
+    HitWal hitWal;
+    HitWriter hitWriter;
+    SimpleMeterRegistry meterRegistry;
+    HitWalDrainer drainer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hitWal = new HitWal(true, directory, 64, 60_000, 60_000);
+        hitWal.open();
+        hitWriter = mock(HitWriter.class);
+        meterRegistry = new SimpleMeterRegistry();
+        drainer = new HitWalDrainer(hitWal, hitWriter, 2, meterRegistry);
+    }
+
+    @Test
+    void testDrainLoadsAndRemovesSegments() throws IOException {
+        hitWal.append(List.of(hit("/events/1"), hit("/events/2")));
+        hitWal.close();
+
+        drainer.drain();
+
+        verify(hitWriter, times(2)).write(anyList());
+        assertEquals(0.0, meterRegistry.get("hits.wal.pending.segments").gauge().value());
+        assertEquals(0.0, meterRegistry.get("hits.wal.pending.bytes").gauge().value());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testFailedSegmentIsRetriedThenQuarantined() {
+        hitWal.append(List.of(hit("/events/1"), hit("/events/2"), hit("/events/3")));
+        hitWal.close();
+        List<Path> segments = hitWal.sealForDrain();
+        when(hitWriter.write(argThat(uri("/events/1")))).thenThrow(new IllegalStateException("bad row"));
+
+        drainer.drain();
+
+        verify(hitWriter, times(1)).write(anyList());
+        assertEquals(3.0, meterRegistry.get("hits.wal.pending.segments").gauge().value());
+        assertTrue(meterRegistry.get("hits.wal.pending.bytes").gauge().value() > 0);
+
+        drainer.drain();
+
+        verify(hitWriter).write(argThat(uri("/events/2")));
+        verify(hitWriter).write(argThat(uri("/events/3")));
+        assertFalse(Files.exists(segments.get(0)));
+        assertTrue(Files.exists(segments.get(0).resolveSibling(segments.get(0).getFileName() + HitWal.FAILED_SUFFIX)));
+        assertEquals(1.0, meterRegistry.get("hits.wal.quarantined").counter().count());
+        assertEquals(0.0, meterRegistry.get("hits.wal.pending.segments").gauge().value());
+        assertTrue(hitWal.sealForDrain().isEmpty());
+    }
+
+    @Test
+    void testQuarantinedSegmentIsNotReplayedAfterRestart() throws IOException {
+        hitWal.append(List.of(hit("/events/1")));
+        hitWal.close();
+        when(hitWriter.write(anyList())).thenThrow(new IllegalStateException("bad row"));
+
+        drainer.drain();
+        drainer.drain();
+
+        HitWal restarted = new HitWal(true, directory, 64, 60_000, 60_000);
+        restarted.open();
+
+        assertTrue(restarted.sealForDrain().isEmpty());
+    }
+
+    private static ArgumentMatcher<List<Hit>> uri(String uri) {
+        return hits -> hits != null && hits.size() == 1 && uri.equals(hits.get(0).getUri());
+    }
+
+    private static Hit hit(String uri) {
+        return Hit.builder()
+                .app("ewm")
+                .uri(uri)
+                .ip(InetAddress.getLoopbackAddress())
+                .timestamp(LocalDateTime.of(2024, 5, 1, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+package ru.practicum.ewm.wal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.ewm.hit.Hit;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HitWalTest {
+    static final int SEGMENT_SIZE = 4096;
+    static final long LONG_MS = 60_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendSealAndReadRoundTrip() throws IOException {
+        HitWal wal = openWal(0, LONG_MS);
+        List<Hit> hits = List.of(hit("ewm", "/events/1", "10.0.0.1", 1), hit("ewm", "/events/2", "::1", 2),
+                hit("other", "/", "192.168.1.10", 3));
+
+        wal.append(hits);
+        List<Path> segments = wal.sealForDrain();
+
+        assertEquals(1, segments.size());
+        // Сегмент занимает весь размер, нули после последней записи - маркер конца
+        assertEquals(SEGMENT_SIZE, Files.size(segments.get(0)));
+        assertHits(hits, wal.read(segments.get(0)));
+
+        wal.remove(segments.get(0));
+        assertFalse(Files.exists(segments.get(0)));
+        assertTrue(wal.sealForDrain().isEmpty());
+    }
+
+    @Test
+    void testActiveSegmentIsNotSealedWhileWrittenRecently() throws IOException {
+        HitWal wal = openWal(LONG_MS, LONG_MS);
+
+        wal.append(List.of(hit("ewm", "/events/1", "10.0.0.1", 1)));
+
+        assertTrue(wal.sealForDrain().isEmpty());
+
+        wal.close();
+        assertEquals(1, wal.sealForDrain().size());
+    }
+
+    @Test
+    void testActiveSegmentIsSealedAfterMaxAge() throws IOException {
+        HitWal wal = openWal(LONG_MS, 0);
+
+        wal.append(List.of(hit("ewm", "/events/1", "10.0.0.1", 1)));
+
+        assertEquals(1, wal.sealForDrain().size());
+    }
+
+    @Test
+    void testFullSegmentIsSealedOnAppend() throws IOException {
+        HitWal wal = new HitWal(true, directory, 64, LONG_MS, LONG_MS);
+        wal.open();
+
+        wal.append(List.of(hit("ewm", "/events/1", "10.0.0.1", 1), hit("ewm", "/events/2", "10.0.0.2", 2),
+                hit("ewm", "/events/3", "10.0.0.3", 3)));
+        wal.close();
+
+        List<Path> segments = wal.sealForDrain();
+        assertEquals(3, segments.size());
+        assertEquals("/events/3", wal.read(segments.get(2)).get(0).getUri());
+    }
+
+    @Test
+    void testReadStopsAtCorruptedRecord() throws IOException {
+        HitWal wal = openWal(0, LONG_MS);
+        wal.append(List.of(hit("ewm", "/events/1", "10.0.0.1", 1), hit("ewm", "/events/2", "10.0.0.2", 2)));
+        Path segment = wal.sealForDrain().get(0);
+
+        byte[] bytes = Files.readAllBytes(segment);
+        int second = HitWal.HEADER_SIZE + ByteBuffer.wrap(bytes).getInt();
+        bytes[second + HitWal.HEADER_SIZE + 3] ^= 0x01;
+        Files.write(segment, bytes);
+
+        List<Hit> hits = wal.read(segment);
+
+        assertEquals(1, hits.size());
+        assertEquals("/events/1", hits.get(0).getUri());
+    }
+
+    @Test
+    void testReadStopsAtTruncatedRecord() throws IOException {
+        HitWal wal = openWal(0, LONG_MS);
+        wal.append(List.of(hit("ewm", "/events/1", "10.0.0.1", 1), hit("ewm", "/events/2", "10.0.0.2", 2)));
+        Path segment = wal.sealForDrain().get(0);
+
+        byte[] bytes = Files.readAllBytes(segment);
+        int second = HitWal.HEADER_SIZE + ByteBuffer.wrap(bytes).getInt();
+        Files.write(segment, Arrays.copyOf(bytes, second + HitWal.HEADER_SIZE + 5));
+
+        List<Hit> hits = wal.read(segment);
+
+        assertEquals(1, hits.size());
+        assertEquals("/events/1", hits.get(0).getUri());
+    }
+
+    @Test
+    void testOpenReplaysUnsealedSegmentAfterRestart() throws IOException {
+        HitWal crashed = openWal(LONG_MS, LONG_MS);
+        List<Hit> hits = List.of(hit("ewm", "/events/1", "10.0.0.1", 1), hit("ewm", "/events/2", "10.0.0.2", 2));
+        crashed.append(hits);
+        // Процесс падает без close(): сегмент остается незакрытым
+
+        HitWal restarted = openWal(LONG_MS, LONG_MS);
+        List<Path> leftover = restarted.sealForDrain();
+
+        assertEquals(1, leftover.size());
+        assertHits(hits, restarted.read(leftover.get(0)));
+
+        restarted.append(List.of(hit("ewm", "/events/3", "10.0.0.3", 3)));
+        restarted.close();
+
+        List<Path> segments = restarted.sealForDrain();
+        assertEquals(2, segments.size());
+        assertNotEquals(segments.get(0), segments.get(1));
+        assertEquals("/events/3", restarted.read(segments.get(1)).get(0).getUri());
+    }
+
+    private HitWal openWal(long sealIdleMs, long sealMaxAgeMs) throws IOException {
+        HitWal wal = new HitWal(true, directory, SEGMENT_SIZE, sealIdleMs, sealMaxAgeMs);
+        wal.open();
+        return wal;
+    }
+
+    private static void assertHits(List<Hit> expected, List<Hit> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getApp(), actual.get(i).getApp());
+            assertEquals(expected.get(i).getUri(), actual.get(i).getUri());
+            assertEquals(expected.get(i).getIp(), actual.get(i).getIp());
+            assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+        }
+    }
+
+    private static Hit hit(String app, String uri, String ip, int minute) throws UnknownHostException {
+        return Hit.builder()
+                .app(app)
+                .uri(uri)
+                .ip(InetAddress.getByName(ip))
+                .timestamp(LocalDateTime.of(2024, 5, 1, 12, minute, 7, 123_000_000))
+                .build();
+    }
+}